@@ -0,0 +1,85 @@
+package spellchecker;
+
+/**
+ * Dictionary Benchmark - Dictionary.hash() and Dictionary.contains() with and without
+ * the Bloom filter, per looked up word, over several dictionary sizes and misspelling rates.
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DictionaryBenchmark {
+
+    private static final int LOOKUPS = 100_000;
+
+    @Param({Fixtures.BUNDLED, "10000", "100000", "1000000"})
+    public String dictionary;
+
+    @Param({"0.0", "0.1", "0.5"})
+    public double missRate;
+
+    private Dictionary _dict;
+    private Dictionary _filtered;
+    private String[] _lookups;
+
+    @Setup
+    public void setUp() throws FileNotFoundException {
+        _dict = Fixtures.dictionary(dictionary);
+        String[] words = _dict.getDict();
+        _filtered = new Dictionary(words.length, 0.5);
+        _filtered.addAll(Arrays.asList(words));
+        _filtered.setBloomFilter(0.01);
+        _lookups = Fixtures.sample(words, LOOKUPS, missRate, new Random(words.length));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int hash() {
+        int sum = 0;
+        for (String word : _lookups)
+            sum += _dict.hash(word);
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int contains() {
+        int found = 0;
+        for (String word : _lookups)
+            found += _dict.contains(word) ? 1 : 0;
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int containsBloom() {
+        int found = 0;
+        for (String word : _lookups)
+            found += _filtered.contains(word) ? 1 : 0;
+        return found;
+    }
+}
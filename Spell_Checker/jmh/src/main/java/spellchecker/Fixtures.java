@@ -0,0 +1,67 @@
+package spellchecker;
+
+/**
+ * Fixtures - the dictionaries and word samples the JMH benchmarks run over,
+ * made the same way as by Benchmarks: the bundled dictionary or a generated one
+ * of random lower case words, and samples of its words with a share of them misspelled.
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Random;
+
+final class Fixtures {
+
+    static final String BUNDLED = "bundled";
+    private static final String BUNDLED_PATH = "src/dictionary.txt"; // run from the Spell_Checker directory
+
+    private Fixtures() {
+    }
+
+    /**
+     * @param dictionary - "bundled", or the amount of words of a generated dictionary
+     * @return the dictionary
+     * @throws FileNotFoundException
+     */
+    static Dictionary dictionary(String dictionary) throws FileNotFoundException {
+        if (BUNDLED.equals(dictionary)) {
+            Dictionary dict = new Dictionary();
+            dict.build(BUNDLED_PATH);
+            return dict;
+        }
+        int size = Integer.parseInt(dictionary);
+        Random random = new Random(size);
+        ArrayList<String> words = new ArrayList<>(size);
+        char[] chars = new char[12];
+        for (int i = 0; i < size; i++) {
+            int length = 3 + random.nextInt(10);
+            for (int j = 0; j < length; j++)
+                chars[j] = (char) ('a' + random.nextInt(26));
+            words.add(new String(chars, 0, length));
+        }
+        Dictionary dict = new Dictionary(size, 0.5);
+        dict.addAll(words);
+        return dict;
+    }
+
+    /**
+     * @return count dictionary words, a missRate share of them misspelled by replacing one letter
+     */
+    static String[] sample(String[] words, int count, double missRate, Random random) {
+        String[] sample = new String[count];
+        for (int i = 0; i < count; i++) {
+            String word = words[random.nextInt(words.length)];
+            if (random.nextDouble() < missRate && word.length() > 0) {
+                char[] chars = word.toCharArray();
+                int j = random.nextInt(chars.length);
+                chars[j] = (char) ('a' + (chars[j] - 'a' + 1 + random.nextInt(25)) % 26);
+                word = new String(chars);
+            }
+            sample[i] = word;
+        }
+        return sample;
+    }
+}
@@ -0,0 +1,68 @@
+package spellchecker;
+
+/**
+ * Suggestion Benchmark - SpellCheck.getSuggestion() (the length pruned search)
+ * against scanSuggestion() (scoring every word), per misspelled word.
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.FileNotFoundException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SuggestionBenchmark {
+
+    private static final int SUGGESTIONS = 20;
+
+    @Param({Fixtures.BUNDLED, "10000", "100000", "1000000"})
+    public String dictionary;
+
+    private SpellCheck _checker;
+    private String[] _misspelled;
+
+    @Setup
+    public void setUp() throws FileNotFoundException {
+        Dictionary dict = Fixtures.dictionary(dictionary);
+        _checker = new SpellCheck(dict);
+        _misspelled = Fixtures.sample(dict.getDict(), SUGGESTIONS, 1.0, new Random(dict.size()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SUGGESTIONS)
+    public int getSuggestion() {
+        int length = 0;
+        for (String word : _misspelled)
+            length += _checker.getSuggestion(word).length();
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SUGGESTIONS)
+    public int scanSuggestion() {
+        int length = 0;
+        for (String word : _misspelled)
+            length += _checker.scanSuggestion(word).length();
+        return length;
+    }
+}
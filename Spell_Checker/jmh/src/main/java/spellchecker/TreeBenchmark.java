@@ -0,0 +1,130 @@
+package spellchecker;
+
+/**
+ * Tree Benchmark - the same insertions and deletions on RedBlackTree and on
+ * ArrayRedBlackTree: the words of a text (10% of them misspelled) in random order,
+ * inserted into an empty tree (a repeated word counted on its node) or searched in a tree
+ * holding them all, and the tree's distinct words deleted from it
+ * (the full trees are built by an untimed setup before every invocation).
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeBenchmark {
+
+    private static final int TEXT_WORDS = 100_000;
+
+    @Param({Fixtures.BUNDLED, "10000", "100000", "1000000"})
+    public String dictionary;
+
+    private List<String> _text; // a repeated word is the instance the trees keep, RedBlackTree.search() compares references
+    private List<String> _distinct;
+    private RedBlackTree _tree;
+    private ArrayRedBlackTree _arrayTree;
+
+    @Setup
+    public void setUp() throws FileNotFoundException {
+        String[] words = Fixtures.dictionary(dictionary).getDict();
+        Random random = new Random(words.length);
+        String[] text = Fixtures.sample(words, TEXT_WORDS, 0.1, random);
+        HashMap<String, String> first = new HashMap<>();
+        _text = new ArrayList<>(text.length);
+        for (String word : text) {
+            String instance = first.putIfAbsent(word, word);
+            _text.add((instance != null) ? instance : word);
+        }
+        Collections.shuffle(_text, random);
+        _distinct = new ArrayList<>(new LinkedHashSet<>(_text));
+    }
+
+    /**
+     * Builds full trees for the search and delete benchmarks, untimed
+     */
+    @Setup(Level.Invocation)
+    public void fill(BenchmarkParams params) {
+        if (params.getBenchmark().endsWith("insert"))
+            return;
+        _tree = new RedBlackTree();
+        for (String word : _text)
+            _tree.insert(_tree.getRoot(), word);
+        _arrayTree = new ArrayRedBlackTree();
+        for (String word : _text)
+            _arrayTree.insert(word);
+    }
+
+    @Benchmark
+    public RedBlackTree redBlackTreeInsert() {
+        RedBlackTree tree = new RedBlackTree();
+        for (String word : _text)
+            tree.insert(tree.getRoot(), word);
+        return tree;
+    }
+
+    @Benchmark
+    public ArrayRedBlackTree arrayRedBlackTreeInsert() {
+        ArrayRedBlackTree tree = new ArrayRedBlackTree();
+        for (String word : _text)
+            tree.insert(word);
+        return tree;
+    }
+
+    @Benchmark
+    public long redBlackTreeSearch() {
+        long found = 0;
+        for (String word : _text)
+            found += _tree.search(_tree.getRoot(), word).getCount();
+        return found;
+    }
+
+    @Benchmark
+    public long arrayRedBlackTreeSearch() {
+        long found = 0;
+        for (String word : _text)
+            found += _arrayTree.getCount(_arrayTree.search(word));
+        return found;
+    }
+
+    @Benchmark
+    public RedBlackTree redBlackTreeDelete() {
+        for (String word : _distinct)
+            _tree.delete(_tree.getRoot(), word);
+        return _tree;
+    }
+
+    @Benchmark
+    public ArrayRedBlackTree arrayRedBlackTreeDelete() {
+        for (String word : _distinct)
+            _arrayTree.delete(word);
+        return _arrayTree;
+    }
+}
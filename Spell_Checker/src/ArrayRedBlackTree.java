@@ -0,0 +1,448 @@
+/**
+ * Represents a Red Black Tree stored as a struct of arrays -
+ * a node is an int index into parallel arrays of keys, sons and parents,
+ * and its color is a single boolean, so the tree holds no node objects
+ * and no color Strings. Index 0 is the nil[T] sentinel.
+ * <p>Like RedBlackTree, a word is kept once: inserting it again counts another occurrence
+ * on its node, and deleting it removes the node with all its occurrences.
+ * Deleted nodes' indexes are reused by later insertions.</p>
+ *
+ * @author David kipnis and Gal Toubul
+ * @version 1.0
+ * <p>the code is based on the algorithms from the book:
+ * "Introduction To Algorithms", second edition. authors:</p>
+ * <P>Thomas H. Cormen,
+ * Charles E. Leiserson,
+ * Ronald L. Rivest,
+ * Clifford Stein</P>
+ */
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+public class ArrayRedBlackTree {
+    //declarations
+    public static final int NIL = 0;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] _keys;
+    private int[] _counts; // how many times the node's word was inserted
+    private int[] _left;
+    private int[] _right;
+    private int[] _parent;
+    private boolean[] _red;
+    private int _root;
+    private int _size;
+    private int _next; // the next never used index
+    private int _free; // the head of the freed indexes list, linked through _right
+
+    //constructor
+
+    /**
+     * creats a new RB-Tree
+     * sets its root to nil[T]
+     */
+    public ArrayRedBlackTree() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * creats a new RB-Tree with room for a given amount of nodes before growing
+     *
+     * @param capacity - the expected amount of nodes
+     */
+    public ArrayRedBlackTree(int capacity) {
+        capacity = Math.max(capacity, 1) + 1; // and nil[T]
+        _keys = new String[capacity];
+        _counts = new int[capacity];
+        _left = new int[capacity];
+        _right = new int[capacity];
+        _parent = new int[capacity];
+        _red = new boolean[capacity];
+        _root = NIL;
+        _next = 1;
+        _free = NIL;
+    }
+
+    //getters
+
+    /**
+     * @return the root node of the tree, NIL for an empty tree
+     */
+    public int getRoot() {
+        return _root;
+    }
+
+    /**
+     * @return the amount of nodes (distinct words) in the tree
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * @param x - a node of the tree
+     * @return the String of the node
+     */
+    public String getValue(int x) {
+        return _keys[x];
+    }
+
+    /**
+     * @param x - a node of the tree
+     * @return how many times the String of the node occurred, 0 for NIL
+     */
+    public int getCount(int x) {
+        return _counts[x];
+    }
+
+    /**
+     * @param x - a node of the tree
+     * @return the left son of the node, NIL if it has none
+     */
+    public int getLeftSon(int x) {
+        return _left[x];
+    }
+
+    /**
+     * @param x - a node of the tree
+     * @return the right son of the node, NIL if it has none
+     */
+    public int getRightSon(int x) {
+        return _right[x];
+    }
+
+    /**
+     * @param x - a node of the tree
+     * @return the parent of the node, NIL for the root
+     */
+    public int getParent(int x) {
+        return _parent[x];
+    }
+
+    /**
+     * @param x - a node of the tree
+     * @return true for a RED node, false for a BLACK node
+     */
+    public boolean isRed(int x) {
+        return _red[x];
+    }
+
+    //methods
+
+    /**
+     * inserts new word into the RB-Tree.
+     * a word which is already in the tree isn't inserted again, its node counts another occurrence
+     *
+     * @param str - the new word
+     * @return the node of the word
+     */
+    public int insert(String str) {
+        int y = NIL;
+        int x = _root;
+        while (x != NIL) {
+            y = x;
+            int cmp = str.compareTo(_keys[x]);
+            if (cmp == 0) {//the word is already in the tree
+                _counts[x]++;
+                return x;
+            }
+            if (cmp < 0)//new node is lexicographically smaller than the compared node
+                x = _left[x];
+            else//new node is lexicographically bigger than the compared node
+                x = _right[x];
+        }
+        int z = allocate(str);
+        _parent[z] = y;
+        if (y == NIL) //T is empty
+            _root = z;
+        else if (str.compareTo(_keys[y]) < 0)
+            _left[y] = z;
+        else
+            _right[y] = z;
+        insertColorFixUp(z);
+        return z;
+    }
+
+    /**
+     * searches a node with a given string as a key
+     *
+     * @param str - the string which is used as a search key
+     * @return the node with the given key, NIL if it doesn't exist
+     */
+    public int search(String str) {
+        int x = _root;
+        while (x != NIL) {
+            int cmp = str.compareTo(_keys[x]);
+            if (cmp == 0)
+                return x;
+            x = (cmp < 0) ? _left[x] : _right[x];
+        }
+        return NIL;
+    }
+
+    /**
+     * deletes a node from the RB-Tree by its string, with all its occurrences
+     *
+     * @param str - the string of the deleted node
+     * @return true if a node was deleted, false if the string isn't in the tree
+     */
+    public boolean delete(String str) {
+        int z = search(str);
+        if (z == NIL)
+            return false;
+        int y = (_left[z] == NIL || _right[z] == NIL) ? z : minimum(_right[z]);
+        int x = (_left[y] != NIL) ? _left[y] : _right[y];
+        _parent[x] = _parent[y]; // nil[T]'s parent is set on purpose, the fix up starts from it
+        if (_parent[y] == NIL)// if the deleted node is the root
+            _root = x;
+        else if (y == _left[_parent[y]])
+            _left[_parent[y]] = x;
+        else
+            _right[_parent[y]] = x;
+        if (y != z) {
+            _keys[z] = _keys[y];
+            _counts[z] = _counts[y];
+        }
+        if (!_red[y])//if we deleted a BLACK node->we have to do a color fix
+            deleteColorFixUp(x);
+        release(y);
+        return true;
+    }
+
+    /**
+     * visits the words of the tree in order: Left->Node->Right, without recursion
+     *
+     * @param visitor - receives every word
+     */
+    public void inorderTreeWalk(Consumer<String> visitor) {
+        int x = _root;
+        int previous = NIL;
+        while (x != NIL) { // threaded by the parent links: no stack is needed
+            if (previous == _parent[x]) {
+                if (_left[x] != NIL) {
+                    previous = x;
+                    x = _left[x];
+                    continue;
+                }
+                previous = NIL; // as if we came back from an empty left subtree
+            }
+            if (previous == _left[x]) {
+                visitor.accept(_keys[x]);
+                if (_right[x] != NIL) {
+                    previous = x;
+                    x = _right[x];
+                    continue;
+                }
+            }
+            previous = x;
+            x = _parent[x];
+        }
+    }
+
+    /**
+     * fixes violations (if exist) at the RB-Tree Properties as a result of inserting new node
+     */
+    private void insertColorFixUp(int z) {
+        while (_red[_parent[z]]) {
+            int p = _parent[z];
+            int g = _parent[p];
+            if (p == _left[g])//case a - z's father is a left child
+            {
+                int y = _right[g];
+                if (_red[y]) //case a.1 - z's uncle is RED
+                {
+                    _red[p] = false;
+                    _red[y] = false;
+                    _red[g] = true;
+                    z = g;
+                } else {
+                    if (z == _right[p])//case a.2 - z's uncle is BLACK & z is a right child
+                    {
+                        z = p;
+                        leftRotate(z);
+                    }
+                    _red[_parent[z]] = false;//case a.3 - z's uncle is BLACK & z is a left child
+                    _red[_parent[_parent[z]]] = true;
+                    rightRotate(_parent[_parent[z]]);
+                }
+            } else//case b - z's father is a right child
+            {
+                int y = _left[g];
+                if (_red[y])//case b.1 - z's uncle is RED
+                {
+                    _red[p] = false;
+                    _red[y] = false;
+                    _red[g] = true;
+                    z = g;
+                } else {
+                    if (z == _left[p])//case b.2 - z's uncle is BLACK & z is a left child
+                    {
+                        z = p;
+                        rightRotate(z);
+                    }
+                    _red[_parent[z]] = false;//case b.3 - z's uncle is BLACK & z is a right child
+                    _red[_parent[_parent[z]]] = true;
+                    leftRotate(_parent[_parent[z]]);
+                }
+            }
+        }
+        _red[_root] = false;
+    }
+
+    /**
+     * fixes violations at the RB-Tree Properties as a result of deleting a black node
+     */
+    private void deleteColorFixUp(int x) {
+        while (x != _root && !_red[x]) {
+            if (x == _left[_parent[x]])//case a - x is a left son
+            {
+                int w = _right[_parent[x]];
+                if (_red[w])//case a.1 - x's brother is RED
+                {
+                    _red[w] = false;
+                    _red[_parent[x]] = true;
+                    leftRotate(_parent[x]);
+                    w = _right[_parent[x]];
+                }
+                if (!_red[_left[w]] && !_red[_right[w]])//case a.2 - both of the brother's sons are BLACK
+                {
+                    _red[w] = true;
+                    x = _parent[x];
+                } else {
+                    if (!_red[_right[w]])//case a.3 - the brother's right son is BLACK
+                    {
+                        _red[_left[w]] = false;
+                        _red[w] = true;
+                        rightRotate(w);
+                        w = _right[_parent[x]];
+                    }
+                    //case a.4 - the brother's right son is RED
+                    _red[w] = _red[_parent[x]];
+                    _red[_parent[x]] = false;
+                    _red[_right[w]] = false;
+                    leftRotate(_parent[x]);
+                    x = _root;
+                }
+            } else //case b - x is a right son
+            {
+                int w = _left[_parent[x]];
+                if (_red[w]) //case b.1 - x's brother is RED
+                {
+                    _red[w] = false;
+                    _red[_parent[x]] = true;
+                    rightRotate(_parent[x]);
+                    w = _left[_parent[x]];
+                }
+                if (!_red[_right[w]] && !_red[_left[w]])//case b.2 - both of the brother's sons are BLACK
+                {
+                    _red[w] = true;
+                    x = _parent[x];
+                } else {
+                    if (!_red[_left[w]])//case b.3 - the brother's left son is BLACK
+                    {
+                        _red[_right[w]] = false;
+                        _red[w] = true;
+                        leftRotate(w);
+                        w = _left[_parent[x]];
+                    }
+                    //case b.4 - the brother's left son is RED
+                    _red[w] = _red[_parent[x]];
+                    _red[_parent[x]] = false;
+                    _red[_left[w]] = false;
+                    rightRotate(_parent[x]);
+                    x = _root;
+                }
+            }
+        }
+        _red[x] = false;
+    }
+
+    /**
+     * rotates left using x as a pivot
+     */
+    private void leftRotate(int x) {
+        int y = _right[x];//set y
+        _right[x] = _left[y];//turn y's left subtree into x's right subtree
+        if (_left[y] != NIL)
+            _parent[_left[y]] = x;
+        _parent[y] = _parent[x];//link x's parent to y
+        if (_parent[x] == NIL)
+            _root = y;
+        else if (x == _left[_parent[x]])
+            _left[_parent[x]] = y;
+        else
+            _right[_parent[x]] = y;
+        _left[y] = x;//put x on y's left
+        _parent[x] = y;
+    }
+
+    /**
+     * rotates right using x as a pivot
+     */
+    private void rightRotate(int x) {
+        int y = _left[x];//set y
+        _left[x] = _right[y];//turn y's right subtree into x's left subtree
+        if (_right[y] != NIL)
+            _parent[_right[y]] = x;
+        _parent[y] = _parent[x];//link x's parent to y
+        if (_parent[x] == NIL)
+            _root = y;
+        else if (x == _right[_parent[x]])
+            _right[_parent[x]] = y;
+        else
+            _left[_parent[x]] = y;
+        _right[y] = x;//put x on y's right
+        _parent[x] = y;
+    }
+
+    /**
+     * @return the minimum node at the subtree of x
+     */
+    private int minimum(int x) {
+        while (_left[x] != NIL)
+            x = _left[x];
+        return x;
+    }
+
+    /**
+     * @return a new RED node holding str, reusing a freed index if there is one
+     */
+    private int allocate(String str) {
+        int z;
+        if (_free != NIL) {
+            z = _free;
+            _free = _right[z];
+        } else {
+            if (_next == _keys.length)
+                grow();
+            z = _next++;
+        }
+        _keys[z] = str;
+        _counts[z] = 1;
+        _left[z] = NIL;
+        _right[z] = NIL;
+        _parent[z] = NIL;
+        _red[z] = true;
+        _size++;
+        return z;
+    }
+
+    private void release(int z) {
+        _keys[z] = null;
+        _counts[z] = 0;
+        _right[z] = _free;
+        _free = z;
+        _size--;
+    }
+
+    private void grow() {
+        int capacity = _keys.length * 2;
+        _keys = Arrays.copyOf(_keys, capacity);
+        _counts = Arrays.copyOf(_counts, capacity);
+        _left = Arrays.copyOf(_left, capacity);
+        _right = Arrays.copyOf(_right, capacity);
+        _parent = Arrays.copyOf(_parent, capacity);
+        _red = Arrays.copyOf(_red, capacity);
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * Array Red Black Tree Test - runs 200,000 random operations on an ArrayRedBlackTree
+ * and checks it against the reference trees after every one of them:
+ * the first half inserts and searches words in an ArrayRedBlackTree and a RedBlackTree at once,
+ * and the second half deletes too, against a sorted map of the words' occurrences
+ * (RedBlackTree.delete() isn't a reference, it takes nil[T] for a son's absence).
+ * Every word's occurrences must match, and every few operations the whole tree is walked -
+ * its words in order with their occurrences, and the red black properties
+ * (a BLACK root, no RED node with a RED son, the same amount of BLACK nodes on every path).
+ * The words are short and of a small alphabet, so a word repeats and is deleted often.
+ * Exits with an error on the first mismatch.
+ * <p>Run: java ArrayRedBlackTreeTest</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class ArrayRedBlackTreeTest {
+
+    private static final int OPERATIONS = 200_000;
+    private static final int WALK_EVERY = 97;
+    private static final int MAX_LENGTH = 4;
+    private static final String ALPHABET = "abcd";
+
+    private static int _operation;
+
+    public static void main(String[] args) {
+        Random random = new Random(2024);
+        List<String> words = new ArrayList<>(); // every word once, RedBlackTree.search() compares references
+        words("", words);
+        ArrayRedBlackTree tree = new ArrayRedBlackTree();
+        RedBlackTree reference = new RedBlackTree();
+        TreeMap<String, Integer> occurrences = new TreeMap<>();
+        for (_operation = 0; _operation < OPERATIONS / 2; _operation++) {
+            String word = words.get(random.nextInt(words.size()));
+            if (random.nextBoolean()) {
+                tree.insert(word);
+                reference.insert(reference.getRoot(), word);
+                occurrences.merge(word, 1, Integer::sum);
+            }
+            int count = reference.search(reference.getRoot(), word).getCount();
+            if (count != occurrences.getOrDefault(word, 0))
+                fail(word, "RedBlackTree counts " + count + " occurrences, expected " + occurrences.getOrDefault(word, 0));
+            check(tree, word, occurrences);
+            if (_operation % WALK_EVERY == 0) {
+                walk(tree, occurrences);
+                List<String> walked = new ArrayList<>();
+                walk(reference.getRoot(), walked);
+                if (!walked.equals(walk(tree)))
+                    fail("", "the trees' words differ: " + walked + " and " + walk(tree));
+            }
+        }
+        for (; _operation < OPERATIONS; _operation++) {
+            String word = words.get(random.nextInt(words.size()));
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                tree.insert(word);
+                occurrences.merge(word, 1, Integer::sum);
+            } else if (operation == 1) {
+                boolean deleted = tree.delete(word);
+                if (deleted != (occurrences.remove(word) != null))
+                    fail(word, "delete() gave " + deleted);
+            }
+            check(tree, word, occurrences);
+            if (_operation % WALK_EVERY == 0)
+                walk(tree, occurrences);
+        }
+        walk(tree, occurrences);
+        System.out.println("ArrayRedBlackTreeTest passed: " + OPERATIONS + " operations over " + words.size() + " words");
+    }
+
+    /**
+     * Adds every word of the alphabet up to MAX_LENGTH chars which starts with a prefix
+     */
+    private static void words(String prefix, List<String> words) {
+        if (!prefix.isEmpty())
+            words.add(prefix);
+        if (prefix.length() < MAX_LENGTH) {
+            for (int i = 0; i < ALPHABET.length(); i++)
+                words(prefix + ALPHABET.charAt(i), words);
+        }
+    }
+
+    /**
+     * Checks the occurrences of a word and the amount of words
+     */
+    private static void check(ArrayRedBlackTree tree, String word, TreeMap<String, Integer> occurrences) {
+        int x = tree.search(word);
+        int count = tree.getCount(x);
+        if (count != occurrences.getOrDefault(word, 0) || (x != ArrayRedBlackTree.NIL && !tree.getValue(x).equals(word)))
+            fail(word, "search() found " + count + " occurrences, expected " + occurrences.getOrDefault(word, 0));
+        if (tree.size() != occurrences.size())
+            fail(word, "size() is " + tree.size() + ", expected " + occurrences.size());
+    }
+
+    /**
+     * Walks the whole tree - its words and occurrences in order, and the red black properties
+     */
+    private static void walk(ArrayRedBlackTree tree, TreeMap<String, Integer> occurrences) {
+        int root = tree.getRoot();
+        if (tree.isRed(root))
+            fail("", "the root is RED");
+        if (root != ArrayRedBlackTree.NIL && tree.getParent(root) != ArrayRedBlackTree.NIL)
+            fail(tree.getValue(root), "the root has a parent");
+        blackHeight(tree, root);
+        List<String> walked = walk(tree);
+        if (!walked.equals(new ArrayList<>(occurrences.keySet())))
+            fail("", "inorderTreeWalk() gave " + walked + ", expected " + occurrences.keySet());
+        for (Map.Entry<String, Integer> entry : occurrences.entrySet()) {
+            int count = tree.getCount(tree.search(entry.getKey()));
+            if (count != entry.getValue())
+                fail(entry.getKey(), count + " occurrences, expected " + entry.getValue());
+        }
+    }
+
+    /**
+     * @return the amount of BLACK nodes on every path of a subtree, failing when paths differ
+     */
+    private static int blackHeight(ArrayRedBlackTree tree, int x) {
+        if (x == ArrayRedBlackTree.NIL)
+            return 1;
+        int left = tree.getLeftSon(x);
+        int right = tree.getRightSon(x);
+        for (int son : new int[]{left, right}) {
+            if (son != ArrayRedBlackTree.NIL && tree.getParent(son) != x)
+                fail(tree.getValue(son), "its parent link is broken");
+            if (tree.isRed(x) && tree.isRed(son))
+                fail(tree.getValue(x), "a RED node has a RED son");
+        }
+        int height = blackHeight(tree, left);
+        if (height != blackHeight(tree, right))
+            fail(tree.getValue(x), "the paths below it have different amounts of BLACK nodes");
+        return height + (tree.isRed(x) ? 0 : 1);
+    }
+
+    private static List<String> walk(ArrayRedBlackTree tree) {
+        List<String> walked = new ArrayList<>();
+        tree.inorderTreeWalk(walked::add);
+        return walked;
+    }
+
+    /**
+     * Walks a RedBlackTree in order, its nil[T] is the only node without sons
+     */
+    private static void walk(RedBlackNode x, List<String> walked) {
+        if (x.getLeftSon() == null)
+            return;
+        walk(x.getLeftSon(), walked);
+        walked.add(x.getValue());
+        walk(x.getRightSon(), walked);
+    }
+
+    private static void fail(String word, String message) {
+        System.err.println("ArrayRedBlackTreeTest failed at operation " + _operation + " for \"" + word + "\": " + message);
+        System.exit(1);
+    }
+}
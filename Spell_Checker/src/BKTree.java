@@ -0,0 +1,164 @@
+/**
+ * BK-Tree - a metric tree over the dictionary's words keyed on edit distance.
+ * Every son is stored under its edit distance from its parent, so by the
+ * triangle inequality a query with a maximum distance d only has to descend
+ * into sons whose key is within d of the parent's distance from the query.
+ * Suggestion lookups therefore touch only a small fraction of the words.
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class BKTree implements SuggestionEngine {
+
+    private BKNode _root;
+    private int _size;
+    private int _maxDistance;
+    private Similarity _similarity;
+
+    /**
+     * Builds the tree from every word of a given dictionary
+     *
+     * @param dict        - the dictionary to index
+     * @param maxDistance - the maximal edit distance suggest() searches within
+     */
+    public BKTree(Dictionary dict, int maxDistance) {
+        if (maxDistance < 0)
+            throw new IllegalArgumentException("maxDistance must not be negative: " + maxDistance);
+        _maxDistance = maxDistance;
+        _similarity = new Similarity();
+        for (String word : dict.getDict()) {
+            add(word);
+        }
+    }
+
+    /**
+     * @return the amount of distinct words in the tree
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * Adds a word to the tree, words that are already in it are ignored
+     *
+     * @param word - the new word
+     */
+    public void add(String word) {
+        if (_root == null) {
+            _root = new BKNode(word);
+            _size++;
+            return;
+        }
+        BKNode x = _root;
+        while (true) {
+            int d = _similarity.distance(word, x.word);
+            if (d == 0)
+                return; // already in the tree
+            BKNode son = x.getSon(d);
+            if (son == null) {
+                x.addSon(d, new BKNode(word));
+                _size++;
+                return;
+            }
+            x = son;
+        }
+    }
+
+    /**
+     * Finds all the words within a maximal edit distance from a given word
+     *
+     * @param word        - the query word
+     * @param maxDistance - the maximal edit distance
+     * @return the words of the tree within maxDistance from word
+     */
+    public ArrayList<String> query(String word, int maxDistance) {
+        ArrayList<String> result = new ArrayList<>();
+        if (_root == null)
+            return result;
+        ArrayDeque<BKNode> stack = new ArrayDeque<>();
+        stack.push(_root);
+        while (!stack.isEmpty()) {
+            BKNode x = stack.pop();
+            int d = _similarity.distance(word, x.word);
+            if (d <= maxDistance)
+                result.add(x.word);
+            for (int i = 0; i < x.sonsCount; i++) {
+                int key = x.keys[i];
+                if (key >= d - maxDistance && key <= d + maxDistance)
+                    stack.push(x.sons[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Suggests the best scored word (by the same potential as SpellCheck)
+     * among the words within the configured edit distance
+     *
+     * @param input - the misspelled word
+     * @return the suggested word, or null if no word is close enough
+     */
+    public String suggest(String input) {
+        return suggest(input, _similarity);
+    }
+
+    /**
+     * Suggests a word like suggest(input), scored by the caller's kernel
+     *
+     * @param input      - the misspelled word
+     * @param similarity - the caller's scoring kernel
+     * @return the suggested word, or null if no word is close enough
+     */
+    public String suggest(String input, Similarity similarity) {
+        String potentialWord = null;
+        int max = -1;
+        for (String word : query(input, _maxDistance)) {
+            int currPotential = similarity.score(word, input);
+            if (currPotential > max) {
+                max = currPotential;
+                potentialWord = word;
+            }
+        }
+        return potentialWord;
+    }
+
+    /**
+     * A node of the tree - a word and its sons, keyed by their distance from it
+     */
+    private static class BKNode {
+        private final String word;
+        private int[] keys;
+        private BKNode[] sons;
+        private int sonsCount;
+
+        private BKNode(String word) {
+            this.word = word;
+        }
+
+        private BKNode getSon(int key) {
+            for (int i = 0; i < sonsCount; i++) {
+                if (keys[i] == key)
+                    return sons[i];
+            }
+            return null;
+        }
+
+        private void addSon(int key, BKNode son) {
+            if (keys == null) {
+                keys = new int[2];
+                sons = new BKNode[2];
+            } else if (sonsCount == keys.length) {
+                keys = Arrays.copyOf(keys, sonsCount * 2);
+                sons = Arrays.copyOf(sons, sonsCount * 2);
+            }
+            keys[sonsCount] = key;
+            sons[sonsCount] = son;
+            sonsCount++;
+        }
+    }
+}
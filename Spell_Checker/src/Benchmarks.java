@@ -0,0 +1,286 @@
+/**
+ * Benchmarks - a self contained micro benchmark harness for the hot paths:
+ * Dictionary.hash(), Dictionary.contains(), RedBlackTree.insert()/search()/delete() against
+ * ArrayRedBlackTree.insert()/search()/delete() and the heap each tree retains, tokenizing a text (the former Scanner against Tokenizer)
+ * and SpellCheck.getSuggestion().
+ * They run over the bundled dictionary.txt and over generated dictionaries
+ * of 10^4 to 10^6 words, with several misspelling rates of the looked up words.
+ * <p>Every benchmark is warmed up and then timed; the report gives the time
+ * and the allocated bytes per operation (the thread's allocation counter,
+ * like the gc profiler's normalized allocation rate). A "retained" line gives instead the heap
+ * a structure keeps per word, measured after full garbage collections.
+ * The same benchmarks run under JMH in the jmh module.</p>
+ * <p>java Benchmarks [dictionary.txt]</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.FileNotFoundException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class Benchmarks {
+
+    private static final int[] GENERATED_SIZES = {10_000, 100_000, 1_000_000};
+    private static final double[] MISSPELLING_RATES = {0.0, 0.1, 0.5};
+    private static final int LOOKUPS = 100_000;
+    private static final int SUGGESTIONS = 20;
+    private static final int WORDS_PER_LINE = 10; // of the tokenized text
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+    private static final int GC_ROUNDS = 3;
+    private static final int RETAINED_MIN_WORDS = 1_000_000; // words built for a retained heap measurement
+    private static volatile long _sink; // keeps the JIT from dropping the measured work
+
+    public static void main(String[] args) throws FileNotFoundException {
+        String bundled = (args.length > 0) ? args[0] : "src/dictionary.txt";
+        Dictionary dict = new Dictionary();
+        dict.build(bundled);
+        System.out.printf("%-40s %10s %6s %14s %10s%n", "benchmark", "words", "miss", "ns/op", "B/op");
+        run("bundled", dict);
+        for (int size : GENERATED_SIZES) {
+            run("generated", generate(size, new Random(size)));
+        }
+    }
+
+    /**
+     * Runs every benchmark over one dictionary
+     */
+    private static void run(String name, Dictionary dict) {
+        String[] words = dict.getDict();
+        Random random = new Random(words.length);
+        Dictionary filtered = new Dictionary(words.length, 0.5);
+        filtered.addAll(Arrays.asList(words));
+        filtered.setBloomFilter(BLOOM_FALSE_POSITIVE_RATE);
+        for (double rate : MISSPELLING_RATES) {
+            String[] lookups = sample(words, LOOKUPS, rate, random);
+            measure(name + " Dictionary.hash", words.length, rate, lookups.length, () -> {
+                long sum = 0;
+                for (String word : lookups)
+                    sum += dict.hash(word);
+                _sink = sum;
+            });
+            measure(name + " Dictionary.contains", words.length, rate, lookups.length, () -> {
+                long found = 0;
+                for (String word : lookups)
+                    found += dict.contains(word) ? 1 : 0;
+                _sink = found;
+            });
+            measure(name + " Dictionary.contains (bloom)", words.length, rate, lookups.length, () -> {
+                long found = 0;
+                for (String word : lookups)
+                    found += filtered.contains(word) ? 1 : 0;
+                _sink = found;
+            });
+        }
+        String[] text = sample(words, LOOKUPS, 0.1, random);
+        // the trees get the same operations: the text's words in random order, a repeated word
+        // counted on its node by both. A repeated word is the very instance the trees keep,
+        // since RedBlackTree.search() compares references. A node is deleted once, with its occurrences
+        List<String> shuffled = canonical(text);
+        Collections.shuffle(shuffled, random);
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(shuffled));
+        measure(name + " RedBlackTree.insert", words.length, 0.1, shuffled.size(), () -> {
+            _sink = redBlackTree(shuffled).getRoot().getCount();
+        });
+        measure(name + " ArrayRedBlackTree.insert", words.length, 0.1, shuffled.size(), () -> {
+            _sink = arrayRedBlackTree(shuffled).size();
+        });
+        measure(name + " RedBlackTree.search", words.length, 0.1, shuffled.size(),
+                () -> redBlackTree(shuffled), tree -> {
+            long found = 0;
+            for (String word : shuffled)
+                found += tree.search(tree.getRoot(), word).getCount();
+            _sink = found;
+        });
+        measure(name + " ArrayRedBlackTree.search", words.length, 0.1, shuffled.size(),
+                () -> arrayRedBlackTree(shuffled), tree -> {
+            long found = 0;
+            for (String word : shuffled)
+                found += tree.getCount(tree.search(word));
+            _sink = found;
+        });
+        measure(name + " RedBlackTree.delete", words.length, 0.1, distinct.size(),
+                () -> redBlackTree(shuffled), tree -> {
+            for (String word : distinct)
+                tree.delete(tree.getRoot(), word);
+            _sink = tree.getRoot().getCount();
+        });
+        measure(name + " ArrayRedBlackTree.delete", words.length, 0.1, distinct.size(),
+                () -> arrayRedBlackTree(shuffled), tree -> {
+            for (String word : distinct)
+                tree.delete(word);
+            _sink = tree.size();
+        });
+        retained(name + " RedBlackTree retained", words.length, distinct.size(), () -> redBlackTree(shuffled));
+        retained(name + " ArrayRedBlackTree retained", words.length, distinct.size(), () -> arrayRedBlackTree(shuffled));
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < text.length; i++)
+            lines.append(text[i]).append((i % WORDS_PER_LINE == WORDS_PER_LINE - 1) ? '\n' : ' ');
+        String document = lines.toString();
+        measure(name + " Scanner tokenize+contains", words.length, 0.1, text.length, () -> {
+            // the tokenizing run() and stream() did before Tokenizer - a String per token
+            Scanner sc = new Scanner(new StringReader(document));
+            sc.useDelimiter("(\\s+|\\n+)");
+            long found = 0;
+            while (sc.hasNext())
+                found += dict.contains(sc.next()) ? 1 : 0;
+            _sink = found;
+        });
+        measure(name + " Tokenizer tokenize+contains", words.length, 0.1, text.length, () -> {
+            Tokenizer tokens = new Tokenizer(new StringReader(document), false, false);
+            long found = 0;
+            while (tokens.next())
+                found += dict.contains(tokens) ? 1 : 0;
+            _sink = found;
+        });
+        SpellCheck checker = new SpellCheck(dict);
+        String[] misspelled = sample(words, SUGGESTIONS, 1.0, random);
+        measure(name + " SpellCheck.getSuggestion", words.length, 1.0, misspelled.length, () -> {
+            long length = 0;
+            for (String word : misspelled)
+                length += checker.getSuggestion(word).length();
+            _sink = length;
+        });
+    }
+
+    /**
+     * Warms a benchmark up, times it and prints its time and allocation per operation
+     */
+    private static void measure(String name, int words, double missRate, int ops, Runnable body) {
+        measure(name, words, missRate, ops, () -> null, ignored -> body.run());
+    }
+
+    /**
+     * Like measure(), with an untimed setup before every round (for example a tree to delete from)
+     */
+    private static <T> void measure(String name, int words, double missRate, int ops,
+                                    Supplier<T> setup, Consumer<T> body) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+            body.accept(setup.get());
+        long thread = Thread.currentThread().getId();
+        long allocated = 0;
+        long nanos = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            T state = setup.get();
+            long before = THREADS.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            body.accept(state);
+            nanos += System.nanoTime() - start;
+            allocated += THREADS.getThreadAllocatedBytes(thread) - before;
+        }
+        long totalOps = (long) ops * MEASURED_ROUNDS;
+        System.out.printf("%-40s %10d %5.0f%% %14.1f %10.1f%n",
+                name, words, missRate * 100, (double) nanos / totalOps, (double) allocated / totalOps);
+    }
+
+    /**
+     * Builds a structure and prints the heap it retains per word - the used heap after full
+     * garbage collections, with the structure against without it (the words themselves are shared).
+     * Small structures are built several times over, so the heap's noise averages out.
+     */
+    private static void retained(String name, int words, int count, Supplier<Object> build) {
+        Object[] copies = new Object[Math.max(1, RETAINED_MIN_WORDS / count)];
+        long before = usedHeap();
+        for (int i = 0; i < copies.length; i++)
+            copies[i] = build.get();
+        long retained = usedHeap() - before;
+        _sink = copies[copies.length - 1].hashCode(); // keeps the copies reachable until they're measured
+        System.out.printf("%-40s %10d %6s %14s %10.1f%n",
+                name, words, "", "-", (double) retained / ((long) count * copies.length));
+    }
+
+    /**
+     * @return the used heap after full garbage collections
+     */
+    private static long usedHeap() {
+        for (int i = 0; i < GC_ROUNDS; i++)
+            System.gc();
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * @return the words, every repeated word replaced by its first instance
+     */
+    private static List<String> canonical(String[] words) {
+        HashMap<String, String> first = new HashMap<>();
+        List<String> canonical = new ArrayList<>(words.length);
+        for (String word : words) {
+            String instance = first.putIfAbsent(word, word);
+            canonical.add((instance != null) ? instance : word);
+        }
+        return canonical;
+    }
+
+    /**
+     * @return a RedBlackTree of the given words, inserted in their order
+     */
+    private static RedBlackTree redBlackTree(List<String> words) {
+        RedBlackTree tree = new RedBlackTree();
+        for (String word : words)
+            tree.insert(tree.getRoot(), word);
+        return tree;
+    }
+
+    /**
+     * @return an ArrayRedBlackTree of the given words, inserted in their order
+     */
+    private static ArrayRedBlackTree arrayRedBlackTree(List<String> words) {
+        ArrayRedBlackTree tree = new ArrayRedBlackTree();
+        for (String word : words)
+            tree.insert(word);
+        return tree;
+    }
+
+    /**
+     * @return a dictionary of random lower case words, 3 to 12 letters long
+     */
+    private static Dictionary generate(int size, Random random) {
+        ArrayList<String> words = new ArrayList<>(size);
+        char[] chars = new char[12];
+        for (int i = 0; i < size; i++) {
+            int length = 3 + random.nextInt(10);
+            for (int j = 0; j < length; j++)
+                chars[j] = (char) ('a' + random.nextInt(26));
+            words.add(new String(chars, 0, length));
+        }
+        Dictionary dict = new Dictionary(size, 0.5);
+        dict.addAll(words);
+        return dict;
+    }
+
+    /**
+     * @return count dictionary words, a missRate share of them misspelled by replacing one letter
+     */
+    private static String[] sample(String[] words, int count, double missRate, Random random) {
+        String[] sample = new String[count];
+        for (int i = 0; i < count; i++) {
+            String word = words[random.nextInt(words.length)];
+            if (random.nextDouble() < missRate && word.length() > 0) {
+                char[] chars = word.toCharArray();
+                int j = random.nextInt(chars.length);
+                chars[j] = (char) ('a' + (chars[j] - 'a' + 1 + random.nextInt(25)) % 26);
+                word = new String(chars);
+            }
+            sample[i] = word;
+        }
+        return sample;
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Bloom Filter - a blocked Bloom filter of word hashes, which answers
+ * "definitely not there" for most words missing from a Dictionary
+ * without touching its hash table.
+ * Every hash sets and tests its bits within a single block of 512 bits
+ * (a cache line), so a test costs one memory access whatever the amount of bits per word.
+ * The filter works on the words' Dictionary.hashLowerCase() values,
+ * so the hash a lookup computes anyway is all it needs.
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+public class BloomFilter {
+
+    private static final int BLOCK_LONGS = 8; // 512 bits
+    private static final int BLOCK_BITS = BLOCK_LONGS * 64;
+    private static final double LN2 = Math.log(2);
+
+    private final long[] _bits;
+    private final int _blockMask;
+    private final int _hashCount;
+    private final int _expectedWords;
+    private int _words;
+
+    /**
+     * Initialize an empty filter sized for an amount of words at a false positive rate
+     *
+     * @param expectedWords     - the amount of words expected to be added
+     * @param falsePositiveRate - the rate of missing words the filter lets through, between 0 and 1 (exclusive)
+     */
+    public BloomFilter(int expectedWords, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1))
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1: " + falsePositiveRate);
+        _expectedWords = Math.max(expectedWords, 1);
+        double bitsPerWord = -Math.log(falsePositiveRate) / (LN2 * LN2);
+        long bits = (long) Math.ceil(_expectedWords * bitsPerWord);
+        int blocks = 1;
+        while ((long) blocks * BLOCK_BITS < bits)
+            blocks *= 2;
+        _bits = new long[blocks * BLOCK_LONGS];
+        _blockMask = blocks - 1;
+        _hashCount = Math.max(1, (int) Math.round(bitsPerWord * LN2));
+    }
+
+    private BloomFilter(BloomFilter other) {
+        _bits = other._bits.clone();
+        _blockMask = other._blockMask;
+        _hashCount = other._hashCount;
+        _expectedWords = other._expectedWords;
+        _words = other._words;
+    }
+
+    /**
+     * Adding a word to the filter by its hash
+     *
+     * @param hash - the word's Dictionary.hashLowerCase()
+     */
+    public void add(int hash) {
+        long mixed = mix(hash);
+        int block = ((int) (mixed >>> 32) & _blockMask) * BLOCK_LONGS;
+        int h1 = (int) mixed;
+        int h2 = (h1 >>> 16) | 1; // the low 32 bits pick the bits, only the high ones the block
+        for (int i = 0; i < _hashCount; i++) {
+            int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            _bits[block + (bit >>> 6)] |= 1L << bit;
+        }
+        _words++;
+    }
+
+    /**
+     * Check if a word may have been added to the filter
+     *
+     * @param hash - the word's Dictionary.hashLowerCase()
+     * @return false when the word was surely never added, true when it may have been
+     */
+    public boolean mightContain(int hash) {
+        long mixed = mix(hash);
+        int block = ((int) (mixed >>> 32) & _blockMask) * BLOCK_LONGS;
+        int h1 = (int) mixed;
+        int h2 = (h1 >>> 16) | 1; // the low 32 bits pick the bits, only the high ones the block
+        for (int i = 0; i < _hashCount; i++) {
+            int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            if ((_bits[block + (bit >>> 6)] & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check if a word may have been added to the filter, in any case
+     *
+     * @param word - input word
+     * @return false when the word was surely never added, true when it may have been
+     */
+    public boolean mightContain(CharSequence word) {
+        return mightContain(Dictionary.hashLowerCase(word));
+    }
+
+    /**
+     * @return the amount of words the filter was sized for
+     */
+    public int getExpectedWords() {
+        return _expectedWords;
+    }
+
+    /**
+     * @return the amount of words added to the filter
+     */
+    public int size() {
+        return _words;
+    }
+
+    /**
+     * @return the amount of bits set and tested per word
+     */
+    public int hashCount() {
+        return _hashCount;
+    }
+
+    /**
+     * @return the approximated rate of missing words the filter currently lets through,
+     * for its amount of words (a blocked filter is a little above the classic formula)
+     */
+    public double falsePositiveRate() {
+        double bits = _bits.length * 64.0;
+        return Math.pow(1 - Math.exp(-_hashCount * _words / bits), _hashCount);
+    }
+
+    /**
+     * @return the memory used by the filter's bits, in bytes
+     */
+    public long estimatedBytes() {
+        return _bits.length * 8L;
+    }
+
+    /**
+     * @return an independent copy of the filter
+     */
+    public BloomFilter copy() {
+        return new BloomFilter(this);
+    }
+
+    /**
+     * Spreads the bits of a (weak, string) hash over 64 bits (the MurmurHash3 finalizer)
+     */
+    private static long mix(int hash) {
+        long h = hash * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
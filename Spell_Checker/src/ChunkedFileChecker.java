@@ -0,0 +1,247 @@
+/**
+ * Chunked File Checker - parallel ingestion of large text files.
+ * The file is split into chunks which end at whitespace chars, every chunk is
+ * memory mapped, decoded, tokenized and looked up in the lexicon by a worker thread,
+ * and the chunks' misspelled words are merged back in document order.
+ * <p>The text is read as UTF-8: a chunk ends just after a whitespace char (as
+ * Character.isWhitespace() tells, an ASCII byte or a whole multi byte char), so no char
+ * and no word is split between chunks. Every chunk is tokenized by a Tokenizer, so the words,
+ * their normalization and their lines and columns (in UTF-16 chars) are exactly stream()'s.
+ * Only a run of more than MAX_WORD_BYTES bytes without any whitespace is split,
+ * at a char boundary, so a chunk stays mappable.</p>
+ * <p>Suggestions are computed while merging, on the calling thread, since the
+ * suggestion engines are not thread safe - a SuggestionCache keeps that cheap
+ * for the typically repeated misspellings.</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+public class ChunkedFileChecker {
+
+    public static final int DEFAULT_CHUNK_BYTES = 32 * 1024 * 1024;
+    public static final int MAX_WORD_BYTES = 1024 * 1024; // a longer run without whitespace is split
+    private static final int BOUNDARY_READ_BYTES = 4096;
+
+    private final Lexicon _lexicon;
+    private final int _threads;
+    private final int _chunkBytes;
+    private final boolean _normalizeWords;
+
+    /**
+     * @param lexicon    - the lexicon the words are looked up in, queried by all the threads at once
+     * @param threads    - the amount of worker threads
+     * @param chunkBytes - the nominal size of a chunk, a chunk is extended to the end of its last word
+     *                   (by MAX_WORD_BYTES at most)
+     */
+    public ChunkedFileChecker(Lexicon lexicon, int threads, int chunkBytes) {
+        this(lexicon, threads, chunkBytes, false);
+    }
+
+    /**
+     * @param lexicon        - the lexicon the words are looked up in, queried by all the threads at once
+     * @param threads        - the amount of worker threads
+     * @param chunkBytes     - the nominal size of a chunk, a chunk is extended to the end of its last word
+     *                       (by MAX_WORD_BYTES at most)
+     * @param normalizeWords - true to strip punctuation and lower case the words, like Tokenizer
+     */
+    public ChunkedFileChecker(Lexicon lexicon, int threads, int chunkBytes, boolean normalizeWords) {
+        if (threads <= 0 || chunkBytes <= 0)
+            throw new IllegalArgumentException("threads and chunkBytes must be positive");
+        _lexicon = lexicon;
+        _threads = threads;
+        _chunkBytes = chunkBytes;
+        _normalizeWords = normalizeWords;
+    }
+
+    /**
+     * Checks a text file, reporting its misspelled words in document order
+     *
+     * @param textPath    - the system path to the txt file (UTF-8)
+     * @param dedupWindow - how many recently reported words are not reported again, 0 reports every occurrence
+     * @param suggester   - computes the suggestion of a misspelled word, on the calling thread
+     * @param listener    - receives the misspelled words in text order
+     * @throws IOException
+     */
+    public void check(String textPath, int dedupWindow, Function<String, String> suggester,
+                      MisspellingListener listener) throws IOException {
+        ExecutorService workers = Executors.newFixedThreadPool(_threads);
+        try (FileChannel channel = FileChannel.open(Paths.get(textPath), StandardOpenOption.READ)) {
+            ArrayList<Future<Chunk>> chunks = new ArrayList<>();
+            long size = channel.size();
+            long start = 0;
+            while (start < size) {
+                long end = chunkEnd(channel, start, size);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                chunks.add(workers.submit(() -> scan(buffer)));
+                start = end;
+            }
+            Map<String, Boolean> recent = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > dedupWindow;
+                }
+            };
+            long line = 1;
+            int column = 0; // the chars of the current line which precede the chunk (UTF-16 chars, like Tokenizer)
+            for (Future<Chunk> future : chunks) {
+                Chunk chunk = future.get();
+                for (int i = 0; i < chunk.words.size(); i++) {
+                    String word = chunk.words.get(i);
+                    if (dedupWindow > 0 && recent.put(word, Boolean.TRUE) != null)
+                        continue;
+                    int wordLine = chunk.lines[i];
+                    int wordColumn = (wordLine == 0) ? column + chunk.columns[i] : chunk.columns[i];
+                    listener.found(new Misspelling(word, suggester.apply(word), line + wordLine, wordColumn));
+                }
+                if (chunk.newLines > 0) {
+                    line += chunk.newLines;
+                    column = chunk.lastLineChars;
+                } else {
+                    column += chunk.lastLineChars;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while checking " + textPath, e);
+        } catch (ExecutionException e) {
+            throw new IOException("failed checking " + textPath, e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the position just after the first whitespace char at or after the chunk's nominal end,
+     * or the char boundary MAX_WORD_BYTES after it when there is none (the chunk stays under 2GB)
+     */
+    private long chunkEnd(FileChannel channel, long start, long size) throws IOException {
+        long end = Math.min(size, start + _chunkBytes);
+        long maxEnd = Math.min(size, start + Math.min((long) _chunkBytes + MAX_WORD_BYTES, Integer.MAX_VALUE));
+        ByteBuffer window = ByteBuffer.allocate(BOUNDARY_READ_BYTES);
+        while (end < maxEnd) {
+            window.clear();
+            int read = channel.read(window, end);
+            int scan = (int) Math.min(read, maxEnd - end);
+            for (int i = 0; i < scan; i++) {
+                int whitespace = whitespaceBytes(window, i, read);
+                if (whitespace > 0 && end + i + whitespace <= maxEnd)
+                    return end + i + whitespace;
+            }
+            if (end + scan == maxEnd || scan < 3)
+                end += scan;
+            else
+                end += scan - 2; // reads a multi byte char cut by the window again
+        }
+        if (end == size)
+            return size;
+        for (int back = 0; back < 3 && end > start + 1; back++, end--) { // a char has 3 continuation bytes at most
+            window.clear();
+            window.limit(1);
+            channel.read(window, end);
+            if ((window.get(0) & 0xC0) != 0x80)
+                break; // the next chunk starts with a whole char
+        }
+        return end;
+    }
+
+    /**
+     * @return the length of the char at a window index when it's a whitespace char, 0 otherwise -
+     * the whitespace chars are single bytes or 3 byte UTF-8 chars (U+1680, U+2000 ... U+3000)
+     */
+    private static int whitespaceBytes(ByteBuffer window, int i, int read) {
+        int b = window.get(i);
+        if (b >= 0)
+            return Character.isWhitespace(b) ? 1 : 0;
+        if ((b & 0xF0) != 0xE0 || i + 2 >= read)
+            return 0;
+        int b1 = window.get(i + 1);
+        int b2 = window.get(i + 2);
+        if ((b1 & 0xC0) != 0x80 || (b2 & 0xC0) != 0x80)
+            return 0;
+        int c = ((b & 0x0F) << 12) | ((b1 & 0x3F) << 6) | (b2 & 0x3F);
+        return (c >= 0x800 && Character.isWhitespace(c)) ? 3 : 0;
+    }
+
+    /**
+     * Tokenizes a chunk and collects its misspelled words with their positions relative to the chunk
+     */
+    private Chunk scan(MappedByteBuffer buffer) {
+        Chunk chunk = new Chunk();
+        Tokenizer words = new Tokenizer(new InputStreamReader(new BufferInput(buffer), StandardCharsets.UTF_8),
+                _normalizeWords, _normalizeWords);
+        while (words.next()) {
+            if (!_lexicon.contains(words)) // a correctly spelled word never becomes a String
+                chunk.add(words.toString(), (int) (words.getLine() - 1), words.getColumn());
+        }
+        chunk.newLines = (int) (words.getEndLine() - 1);
+        chunk.lastLineChars = words.getEndColumn();
+        return chunk;
+    }
+
+    /**
+     * An InputStream of a buffer's bytes, from its position to its limit
+     */
+    private static class BufferInput extends InputStream {
+        private final ByteBuffer buffer;
+
+        private BufferInput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0)
+                return 0;
+            if (!buffer.hasRemaining())
+                return -1;
+            length = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, length);
+            return length;
+        }
+    }
+
+    /**
+     * The misspelled words of a chunk, their lines relative to the chunk's first line
+     * and their columns (relative to the chunk's start on its first line)
+     */
+    private static class Chunk {
+        private final ArrayList<String> words = new ArrayList<>();
+        private int[] lines = new int[16];
+        private int[] columns = new int[16];
+        private int newLines;
+        private int lastLineChars;
+
+        private void add(String word, int line, int column) {
+            int i = words.size();
+            if (i == lines.length) {
+                lines = Arrays.copyOf(lines, i * 2);
+                columns = Arrays.copyOf(columns, i * 2);
+            }
+            words.add(word);
+            lines[i] = line;
+            columns[i] = column;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Chunked File Checker Test - checks random texts both by SpellCheck.stream() and by
+ * a ChunkedFileChecker with tiny chunks (so almost every whitespace is a chunk boundary),
+ * and requires the very same misspellings: the same words, suggestions, lines and columns.
+ * The texts mix ASCII and non ASCII words, chars out of the BMP (2 UTF-16 chars each),
+ * punctuation, every kind of whitespace Character.isWhitespace() knows (U+2003, U+3000,
+ * U+001C ... U+001F, CR LF) and a no-break space, which isn't one, and malformed UTF-8.
+ * A run of non ASCII chars longer than MAX_WORD_BYTES must come back whole, split into words.
+ * Exits with an error on the first difference.
+ * <p>Run: java ChunkedFileCheckerTest</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class ChunkedFileCheckerTest {
+
+    private static final int TEXTS = 300;
+    private static final int TEXT_TOKENS = 400;
+    private static final List<String> WORDS = Arrays.asList(
+            "the", "word", "spell", "check", "caf\u00E9", "stra\u00DFe", "\u03BF\u03B4\u03CC\u03C2", "istanbul");
+    private static final String[] TOKENS = {
+            "the", "The", "WORD", "spel", "chek", "caf\u00E9", "CAF\u00C9", "cafe", "Stra\u00DFe", "strasse",
+            "\u03BF\u03B4\u03CC\u03C2", "\u0130stanbul", "(word),", "\"spell\"", "--", "...", "a\u00A0word",
+            "smile\uD83D\uDE00", "\uD83D\uDE00", "x\uD835\uDC00y", "\uFEFFthe"};
+    private static final String[] SEPARATORS = {
+            " ", " ", " ", "  ", "\n", "\r\n", "\t", "\u2003", "\u3000", "\u1680", "\u2028",
+            "\u001C", "\u001F", "\u000B", "\f", "\n\n"};
+
+    public static void main(String[] args) throws IOException {
+        Random random = new Random(2024);
+        Dictionary dict = new Dictionary();
+        dict.addAll(WORDS);
+        File file = File.createTempFile("chunked", ".txt");
+        file.deleteOnExit();
+        for (int t = 0; t < TEXTS; t++) {
+            byte[] text = text(random);
+            Files.write(file.toPath(), text);
+            for (boolean normalize : new boolean[]{false, true}) {
+                int chunkBytes = 1 + random.nextInt(64);
+                int threads = 1 + random.nextInt(4);
+                int dedupWindow = random.nextInt(3) == 0 ? 3 : 0;
+                List<String> streamed = stream(dict, normalize, text, dedupWindow);
+                List<String> chunked = chunked(dict, normalize, file, chunkBytes, threads, dedupWindow);
+                if (!chunked.equals(streamed))
+                    fail(t, normalize, chunkBytes, "chunked " + chunked + "\nstreamed " + streamed);
+            }
+        }
+        checkLongRun(dict, file);
+        System.out.println("ChunkedFileCheckerTest passed: " + TEXTS + " texts, normalized and not");
+    }
+
+    /**
+     * @return a random text of the tokens and separators, sometimes with malformed UTF-8 bytes
+     */
+    private static byte[] text(Random random) throws IOException {
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        for (int i = 0; i < TEXT_TOKENS; i++) {
+            text.write(TOKENS[random.nextInt(TOKENS.length)].getBytes(StandardCharsets.UTF_8));
+            if (random.nextInt(50) == 0)
+                text.write(random.nextBoolean() ? new byte[]{(byte) 0xFF} : new byte[]{(byte) 0xE2, (byte) 0x82});
+            text.write(SEPARATORS[random.nextInt(SEPARATORS.length)].getBytes(StandardCharsets.UTF_8));
+        }
+        return text.toByteArray();
+    }
+
+    private static List<String> stream(Dictionary dict, boolean normalize, byte[] text, int dedupWindow) {
+        SpellCheck checker = new SpellCheck(dict);
+        checker.setNormalizeWords(normalize);
+        List<String> found = new ArrayList<>();
+        checker.stream(new InputStreamReader(new ByteArrayInputStream(text), StandardCharsets.UTF_8), dedupWindow,
+                misspelling -> found.add(describe(misspelling)));
+        return found;
+    }
+
+    private static List<String> chunked(Dictionary dict, boolean normalize, File file, int chunkBytes,
+                                        int threads, int dedupWindow) throws IOException {
+        SpellCheck checker = new SpellCheck(dict);
+        List<String> found = new ArrayList<>();
+        new ChunkedFileChecker(dict, threads, chunkBytes, normalize).check(file.getPath(), dedupWindow,
+                checker::getSuggestion, misspelling -> found.add(describe(misspelling)));
+        return found;
+    }
+
+    /**
+     * A run of 2 byte chars over MAX_WORD_BYTES without whitespace is split into words, at char boundaries
+     */
+    private static void checkLongRun(Dictionary dict, File file) throws IOException {
+        char[] run = new char[ChunkedFileChecker.MAX_WORD_BYTES * 3 / 4];
+        Arrays.fill(run, '\u00E9');
+        String text = "spel " + new String(run) + " chek";
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        StringBuilder words = new StringBuilder();
+        List<Misspelling> found = new ArrayList<>();
+        new ChunkedFileChecker(dict, 2, 1000, false).check(file.getPath(), 0, word -> "", found::add);
+        for (Misspelling misspelling : found)
+            words.append(misspelling.getWord()).append(' ');
+        if (found.size() < 4 || !words.toString().replace(" ", "").equals(text.replace(" ", ""))
+                || found.get(found.size() - 1).getColumn() != text.length() - 3)
+            fail(-1, false, 1000, "the long run came back as " + found.size() + " words, the last at column "
+                    + found.get(found.size() - 1).getColumn());
+    }
+
+    private static String describe(Misspelling misspelling) {
+        return misspelling.getWord() + "->" + misspelling.getSuggestion()
+                + "@" + misspelling.getLine() + ":" + misspelling.getColumn();
+    }
+
+    private static void fail(int text, boolean normalize, int chunkBytes, String message) {
+        System.err.println("ChunkedFileCheckerTest failed for text " + text + (normalize ? " normalized" : "")
+                + " in chunks of " + chunkBytes + " bytes:\n" + message);
+        System.exit(1);
+    }
+}
@@ -0,0 +1,324 @@
+/**
+ * DAWG Dictionary - an alternative dictionary backend stored as a minimized trie
+ * (directed acyclic word graph). Words sharing a prefix share its path and words
+ * sharing a suffix share its sub graph, so the words are not stored as separate Strings.
+ * <p>The graph is built once, from a sorted word list, by the incremental
+ * algorithm of Daciuk et al. and then packed into parallel arrays:
+ * the edges of every node are sorted by their label and stored consecutively.</p>
+ * <p>Besides contains() it supports a bounded edit distance traversal, which
+ * simulates a Levenshtein automaton with one DP row per depth and cuts a
+ * whole sub graph once every cell of its row is over the edit budget.</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+public class DawgDictionary implements Lexicon, SuggestionEngine {
+
+    private int[] _edgesStart; // the edges of node i are [_edgesStart[i], _edgesStart[i + 1])
+    private char[] _labels;
+    private int[] _targets;
+    private boolean[] _final;
+    private int _wordsCount;
+    private int _maxLength;
+    private int _maxDistance;
+    private long _version;
+    private Similarity _similarity;
+
+    /**
+     * Builds the graph from every word of a given dictionary
+     *
+     * @param dict        - the dictionary to copy the words from
+     * @param maxDistance - the maximal edit distance suggest() searches within
+     */
+    public DawgDictionary(Dictionary dict, int maxDistance) {
+        if (maxDistance < 0)
+            throw new IllegalArgumentException("maxDistance must not be negative: " + maxDistance);
+        _maxDistance = maxDistance;
+        _version = dict.getVersion();
+        _similarity = new Similarity();
+        String[] sorted = dict.getDict();
+        Arrays.sort(sorted);
+        pack(new Builder().build(sorted));
+    }
+
+    /**
+     * @return the amount of distinct words in the graph
+     */
+    public int size() {
+        return _wordsCount;
+    }
+
+    /**
+     * @return the version of the dictionary the graph was built from (the graph never changes)
+     */
+    public long getVersion() {
+        return _version;
+    }
+
+    /**
+     * @return the amount of nodes of the minimized graph
+     */
+    public int nodesCount() {
+        return _final.length;
+    }
+
+    /**
+     * @return the amount of edges of the minimized graph
+     */
+    public int edgesCount() {
+        return _labels.length;
+    }
+
+    /**
+     * @return the size of the packed graph arrays in bytes
+     */
+    public long estimatedBytes() {
+        return 4L * _edgesStart.length + 2L * _labels.length + 4L * _targets.length + _final.length;
+    }
+
+    /**
+     * Check if the graph contains a certain word
+     *
+     * @param key - input word
+     * @return true when the graph contains the word, false otherwise
+     */
+    public boolean contains(CharSequence key) {
+        int node = 0;
+        for (int i = 0; i < key.length(); i++) {
+            node = step(node, Character.toLowerCase(key.charAt(i)));
+            if (node < 0)
+                return false;
+        }
+        return _final[node];
+    }
+
+    /**
+     * Finds all the words within a maximal edit distance from a given word
+     *
+     * @param word        - the query word
+     * @param maxDistance - the maximal edit distance
+     * @return the words of the graph within maxDistance from word
+     */
+    public ArrayList<String> search(String word, int maxDistance) {
+        ArrayList<String> result = new ArrayList<>();
+        int m = word.length();
+        int[][] rows = new int[_maxLength + 1][m + 1];
+        for (int j = 0; j <= m; j++) {
+            rows[0][j] = j;
+        }
+        char[] prefix = new char[_maxLength];
+        if (_final[0] && m <= maxDistance)
+            result.add("");
+        search(0, 1, word, maxDistance, rows, prefix, result);
+        return result;
+    }
+
+    /**
+     * Suggests the best scored word (by the same potential as SpellCheck)
+     * among the words within the configured edit distance
+     *
+     * @param input - the misspelled word
+     * @return the suggested word, or null if no word is close enough
+     */
+    public String suggest(String input) {
+        return suggest(input, _similarity);
+    }
+
+    /**
+     * Suggests a word like suggest(input), scored by the caller's kernel
+     *
+     * @param input      - the misspelled word
+     * @param similarity - the caller's scoring kernel
+     * @return the suggested word, or null if no word is close enough
+     */
+    public String suggest(String input, Similarity similarity) {
+        String potentialWord = null;
+        int max = -1;
+        for (String word : search(input, _maxDistance)) {
+            int currPotential = similarity.score(word, input);
+            if (currPotential > max) {
+                max = currPotential;
+                potentialWord = word;
+            }
+        }
+        return potentialWord;
+    }
+
+    /**
+     * Visits the sons of a node, computing the DP row of each son's prefix from the node's row
+     */
+    private void search(int node, int depth, String word, int maxDistance,
+                        int[][] rows, char[] prefix, ArrayList<String> result) {
+        int m = word.length();
+        int[] previous = rows[depth - 1];
+        int[] row = rows[depth];
+        for (int e = _edgesStart[node]; e < _edgesStart[node + 1]; e++) {
+            char c = _labels[e];
+            prefix[depth - 1] = c;
+            row[0] = depth;
+            int rowMin = row[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = (word.charAt(j - 1) == c) ? 0 : 1;
+                row[j] = Math.min(Math.min(row[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (row[j] < rowMin)
+                    rowMin = row[j];
+            }
+            int target = _targets[e];
+            if (row[m] <= maxDistance && _final[target])
+                result.add(new String(prefix, 0, depth));
+            if (rowMin <= maxDistance) // otherwise no word below can get back into the budget
+                search(target, depth + 1, word, maxDistance, rows, prefix, result);
+        }
+    }
+
+    /**
+     * @return the node reached from node by the edge labeled c, -1 if there is none
+     */
+    private int step(int node, char c) {
+        int low = _edgesStart[node];
+        int high = _edgesStart[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (_labels[mid] < c)
+                low = mid + 1;
+            else if (_labels[mid] > c)
+                high = mid - 1;
+            else
+                return _targets[mid];
+        }
+        return -1;
+    }
+
+    /**
+     * Packs the built graph into the parallel arrays, numbering the nodes in BFS order (root is 0)
+     */
+    private void pack(Node root) {
+        ArrayList<Node> order = new ArrayList<>();
+        HashMap<Node, Integer> index = new HashMap<>();
+        order.add(root);
+        index.put(root, 0);
+        int edges = 0;
+        for (int i = 0; i < order.size(); i++) {
+            Node x = order.get(i);
+            edges += x.count;
+            for (int e = 0; e < x.count; e++) {
+                if (!index.containsKey(x.targets[e])) {
+                    index.put(x.targets[e], order.size());
+                    order.add(x.targets[e]);
+                }
+            }
+        }
+        _edgesStart = new int[order.size() + 1];
+        _labels = new char[edges];
+        _targets = new int[edges];
+        _final = new boolean[order.size()];
+        int e = 0;
+        for (int i = 0; i < order.size(); i++) {
+            Node x = order.get(i);
+            _edgesStart[i] = e;
+            _final[i] = x.isFinal;
+            for (int k = 0; k < x.count; k++, e++) {
+                _labels[e] = x.labels[k];
+                _targets[e] = index.get(x.targets[k]);
+            }
+        }
+        _edgesStart[order.size()] = e;
+    }
+
+    /**
+     * A node of the graph while it is being built
+     */
+    private static class Node {
+        private char[] labels = new char[2];
+        private Node[] targets = new Node[2];
+        private int count;
+        private boolean isFinal;
+        private int id = -1; // set when the node is registered as minimized
+
+        private void addEdge(char c, Node target) {
+            if (count == labels.length) {
+                labels = Arrays.copyOf(labels, count * 2);
+                targets = Arrays.copyOf(targets, count * 2);
+            }
+            labels[count] = c;
+            targets[count] = target;
+            count++;
+        }
+
+        /**
+         * @return a key equal for nodes with the same finality and the same (registered) edges
+         */
+        private String signature() {
+            StringBuilder sb = new StringBuilder(1 + count * 3);
+            sb.append(isFinal ? '1' : '0');
+            for (int i = 0; i < count; i++) {
+                int target = targets[i].id;
+                sb.append(labels[i]).append((char) (target >>> 16)).append((char) target);
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Incremental construction of a minimal graph from sorted words (Daciuk et al.)
+     */
+    private class Builder {
+        private final HashMap<String, Node> register = new HashMap<>();
+        private final ArrayList<Node> path = new ArrayList<>(); // the nodes of the previous word
+        private int registered;
+
+        private Node build(String[] sorted) {
+            Node root = new Node();
+            path.add(root);
+            String previous = null;
+            for (String word : sorted) {
+                if (word.equals(previous))
+                    continue;
+                int common = 0;
+                if (previous != null) {
+                    int limit = Math.min(word.length(), previous.length());
+                    while (common < limit && word.charAt(common) == previous.charAt(common))
+                        common++;
+                }
+                minimize(common);
+                Node x = path.get(common);
+                for (int i = common; i < word.length(); i++) {
+                    Node son = new Node();
+                    x.addEdge(word.charAt(i), son);
+                    path.add(son);
+                    x = son;
+                }
+                x.isFinal = true;
+                _wordsCount++;
+                _maxLength = Math.max(_maxLength, word.length());
+                previous = word;
+            }
+            minimize(0);
+            return root;
+        }
+
+        /**
+         * Replaces the nodes of the previous word's path below depth by their registered equivalents
+         */
+        private void minimize(int depth) {
+            for (int i = path.size() - 1; i > depth; i--) {
+                Node parent = path.get(i - 1);
+                Node son = path.get(i);
+                String key = son.signature();
+                Node existing = register.get(key);
+                if (existing != null) {
+                    parent.targets[parent.count - 1] = existing;
+                } else {
+                    son.id = registered++;
+                    register.put(key, son);
+                }
+                path.remove(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * Deletion Index - a SymSpell style suggestion engine.
+ * Every dictionary word is expanded to all its variants with up to k characters
+ * deleted, and each variant is mapped back to the words producing it.
+ * A lookup expands the input the same way and probes the map with each variant,
+ * so its cost depends on the input length and k - not on the dictionary size.
+ * <p>The index grows quickly with k and with the word lengths,
+ * use the memory accounting methods to tune it.</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+public class DeletionIndex implements SuggestionEngine {
+
+    // rough HotSpot (compressed oops) sizes, used by estimatedBytes()
+    private static final int MAP_ENTRY_BYTES = 32 + 4;
+    private static final int OBJECT_HEADER_BYTES = 16;
+    private static final int STRING_BYTES = 24;
+
+    private final int _maxDeletes;
+    private HashMap<String, int[]> _variants; // variant -> {count, word ids...}
+    private String[] _words;
+    private int _wordsCount;
+    private long _postingsCount;
+    private long _postingsCapacity;
+    private long _variantChars;
+    private Similarity _similarity;
+    private int[] _seen; // the query which last met each word id, so a query allocates no marks
+    private int _query;
+
+    /**
+     * Builds the index from every word of a given dictionary
+     *
+     * @param dict       - the dictionary to index
+     * @param maxDeletes - k, the maximal amount of deleted characters (and the maximal edit distance suggested)
+     */
+    public DeletionIndex(Dictionary dict, int maxDeletes) {
+        if (maxDeletes < 0)
+            throw new IllegalArgumentException("maxDeletes must not be negative: " + maxDeletes);
+        _maxDeletes = maxDeletes;
+        _variants = new HashMap<>();
+        _words = new String[Math.max(1, dict.size())];
+        _similarity = new Similarity();
+        _seen = new int[_words.length];
+        HashSet<String> deletes = new HashSet<>();
+        for (String word : dict.getDict()) {
+            int id = addWord(word);
+            deletes.clear();
+            deletes.add(word);
+            generateDeletes(word, _maxDeletes, deletes);
+            for (String variant : deletes) {
+                addPosting(variant, id);
+            }
+        }
+    }
+
+    /**
+     * @return k, the maximal amount of deleted characters
+     */
+    public int getMaxDeletes() {
+        return _maxDeletes;
+    }
+
+    /**
+     * @return the amount of indexed words
+     */
+    public int wordsCount() {
+        return _wordsCount;
+    }
+
+    /**
+     * @return the amount of distinct deletion variants (map keys)
+     */
+    public int variantsCount() {
+        return _variants.size();
+    }
+
+    /**
+     * @return the amount of (variant, word) pairs stored
+     */
+    public long postingsCount() {
+        return _postingsCount;
+    }
+
+    /**
+     * An estimation of the heap the index takes: the map entries,
+     * the variant Strings and the posting arrays (not counting the indexed words themselves)
+     *
+     * @return the estimated size of the index in bytes
+     */
+    public long estimatedBytes() {
+        long variants = _variants.size();
+        long table = 4L * Integer.highestOneBit((int) Math.max(1, variants * 4 / 3)) * 2;
+        long strings = variants * (STRING_BYTES + OBJECT_HEADER_BYTES) + _variantChars;
+        long postings = variants * OBJECT_HEADER_BYTES + 4 * (_postingsCapacity + variants);
+        return table + variants * MAP_ENTRY_BYTES + strings + postings + 4L * _words.length + 4L * _seen.length;
+    }
+
+    /**
+     * Finds all the indexed words within k edits from a given word
+     *
+     * @param word - the query word
+     * @return the indexed words within k edits from word
+     */
+    public ArrayList<String> query(String word) {
+        ArrayList<String> result = new ArrayList<>();
+        HashSet<String> deletes = new HashSet<>();
+        deletes.add(word);
+        generateDeletes(word, _maxDeletes, deletes);
+        if (++_query == 0) { // the stamps wrapped around, forget them all
+            Arrays.fill(_seen, 0);
+            _query = 1;
+        }
+        for (String variant : deletes) {
+            int[] postings = _variants.get(variant);
+            if (postings == null)
+                continue;
+            for (int i = 1; i <= postings[0]; i++) {
+                int id = postings[i];
+                if (_seen[id] != _query) {
+                    _seen[id] = _query;
+                    // deletions on both sides find a superset of the words within k edits
+                    if (_similarity.distance(word, _words[id]) <= _maxDeletes)
+                        result.add(_words[id]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Suggests the best scored word (by the same potential as SpellCheck)
+     * among the words within k edits
+     *
+     * @param input - the misspelled word
+     * @return the suggested word, or null if no word is close enough
+     */
+    public String suggest(String input) {
+        return suggest(input, _similarity);
+    }
+
+    /**
+     * Suggests a word like suggest(input), scored by the caller's kernel
+     *
+     * @param input      - the misspelled word
+     * @param similarity - the caller's scoring kernel
+     * @return the suggested word, or null if no word is close enough
+     */
+    public String suggest(String input, Similarity similarity) {
+        String potentialWord = null;
+        int max = -1;
+        for (String word : query(input)) {
+            int currPotential = similarity.score(word, input);
+            if (currPotential > max) {
+                max = currPotential;
+                potentialWord = word;
+            }
+        }
+        return potentialWord;
+    }
+
+    /**
+     * Adds all the variants of a word with 1 to deletes characters deleted
+     */
+    private static void generateDeletes(String word, int deletes, HashSet<String> out) {
+        if (deletes == 0 || word.length() == 0)
+            return;
+        for (int i = 0; i < word.length(); i++) {
+            String variant = word.substring(0, i) + word.substring(i + 1);
+            if (out.add(variant))
+                generateDeletes(variant, deletes - 1, out);
+        }
+    }
+
+    private int addWord(String word) {
+        if (_wordsCount == _words.length) {
+            _words = Arrays.copyOf(_words, _wordsCount * 2);
+            _seen = Arrays.copyOf(_seen, _words.length);
+        }
+        _words[_wordsCount] = word;
+        return _wordsCount++;
+    }
+
+    private void addPosting(String variant, int id) {
+        int[] postings = _variants.get(variant);
+        if (postings == null) {
+            postings = new int[2];
+            _variants.put(variant, postings);
+            _variantChars += variant.length();
+            _postingsCapacity += 1;
+        } else if (postings[0] == postings.length - 1) {
+            int[] grown = Arrays.copyOf(postings, postings.length * 2);
+            _postingsCapacity += grown.length - postings.length;
+            postings = grown;
+            _variants.put(variant, postings);
+        }
+        postings[0]++;
+        postings[postings[0]] = id;
+        _postingsCount++;
+    }
+}
@@ -1,52 +1,108 @@
 /**
  * The dictionary class, An object representing a dictionary
  * which words can be added to the dictionary by Text file.
- * this object Saved by Hash table data set
+ * this object Saved by an open addressing Hash table data set -
+ * two parallel arrays hold every word's stored hash and its String,
+ * collisions are resolved by linear probing and the table doubles
+ * whenever the load factor would pass its maximum.
  *
  * @author Gal Toubul and David kipnis
  * @version 1.0
  */
 
-import java.io.File;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Scanner;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
 
 
-public class Dictionary {
-    // recommended to use at least third of the total amount of words for the table size
-    private final int HASH_TABLE_SIZE = 1349; //for better results use a prime number
-    private ArrayList<String>[] _array;
+public class Dictionary implements Lexicon {
+    private static final int INITIAL_CAPACITY = 16; // always a power of 2
+    private static final double DEFAULT_LOAD_FACTOR = 0.5;
+    private static final int FIBONACCI_MULTIPLIER = 0x9E3779B9; // 2^32 / golden ratio
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+    private static final int HASH_BUCKETS = 1349; // the size of the former chained table, the range of hash()
+    private static final AtomicLong VERSIONS = new AtomicLong(); // the last version given to any dictionary
+
+    private final double _loadFactor;
+    private int[] _hashes;
+    private String[] _keys; // null marks an empty slot
+    private int _size;
+    private int _shift; // 32 - log2(capacity)
+    private long _version; // changes with the words, for caches built on them
+    private SpellCheckMetrics _metrics; // null when not measured
+    private BloomFilter _bloom; // null when there is no filter in front of the table
+    private double _bloomRate;
+    private int[][] _slotsByLength; // the length index, its arrays are replaced rather than changed
 
     /**
      * Initialize a dictionary with hash table
      */
     public Dictionary() {
-        _array = new ArrayList[HASH_TABLE_SIZE];
-        for (int i = 0; i < HASH_TABLE_SIZE; i++) {
-            _array[i] = new ArrayList<>(); // <String>
-        }
+        this(INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Initialize a dictionary with a hash table large enough
+     * for an expected amount of words without growing
+     *
+     * @param expectedWords - the amount of words expected to be added
+     * @param loadFactor    - the maximal ratio of used slots, between 0 and 1 (exclusive)
+     */
+    public Dictionary(int expectedWords, double loadFactor) {
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException("loadFactor must be between 0 and 1: " + loadFactor);
+        _loadFactor = loadFactor;
+        allocate(capacityFor(expectedWords));
+        indexLengths();
     }
 
     /**
-     * Constructing a dictionary by a list of words saved in a text file
+     * Constructing a dictionary by a list of words saved in a text file (UTF-8, a word per line).
+     * The file is streamed and its words are bulk loaded by addAll(),
+     * so the table grows at most once for the whole file.
      * @param path
      * @throws FileNotFoundException
      */
     public void build(String path) throws FileNotFoundException {
+        long start = (_metrics == null) ? 0 : System.nanoTime();
+        addAll(readWords(path));
+        if (_metrics != null)
+            _metrics.phase("dictionary build", System.nanoTime() - start);
+    }
 
-        File file = new File(path);
-        Scanner sc = new Scanner(file);
-
-        // The next call stops when it reaches a new line or a space
-        sc.useDelimiter("(\\n+|\\s+)");
-        while (sc.hasNext()) {
-            String newWord = sc.nextLine();
-            if (newWord.length() > 0) {
-                add(newWord);
+    /**
+     * Reads the words of a dictionary text file (UTF-8, a word per line), skipping empty lines
+     * @param path - the system path to the file
+     * @return the words, in the file's order
+     * @throws FileNotFoundException
+     */
+    static ArrayList<String> readWords(String path) throws FileNotFoundException {
+        ArrayList<String> words = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8))) {
+            String newWord = reader.readLine();
+            if (newWord != null && newWord.length() > 0 && newWord.charAt(0) == BYTE_ORDER_MARK)
+                newWord = newWord.substring(1);
+            while (newWord != null) {
+                if (newWord.length() > 0) {
+                    words.add(newWord);
+                }
+                newWord = reader.readLine();
             }
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        return words;
     }
 
     /**
@@ -54,6 +110,8 @@ public class Dictionary {
      * the hash number will be shift bitwise 5 times, reduced by the previous value
      * and added on top of it the char ASCII integer value.
      * Inspired by Dan Bernshtein's hash function.
+     * Returns the bucket of the former chained table, between 0 and 1348 -
+     * the table itself probes from the full hash of the lower cased key (see hashLowerCase()).
      * @param key - input word
      * @return the desired integer value linked to this key
      */
@@ -62,32 +120,422 @@ public class Dictionary {
         for (int i = 0; i < key.length(); i++) {
             hash = key.charAt(i) + ((hash << 5) - hash);
         }
-        return Math.abs(hash) % HASH_TABLE_SIZE;
+        return Math.abs(hash) % HASH_BUCKETS;
     }
 
     /**
-     * Adding a key to the dictionary
+     * Adding a key to the dictionary, a key which is already in the dictionary is ignored
      * @param key - input word
      */
     public void add(String key) {
-        key = key.toLowerCase();
-        _array[hash(key)].add(key);
-        Collections.sort(_array[hash(key)]);
+        key = lowerCase(key);
+        int hash = hashLowerCase(key);
+        if (find(key, hash) >= 0)
+            return;
+        if (_size + 1 > _keys.length * _loadFactor) {
+            allocate(_keys.length * 2);
+            insert(key, hash);
+            indexLengths(); // every word moved
+        } else {
+            indexSlot(insert(key, hash), key.length());
+        }
+        _version = VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * Adding many keys to the dictionary at once - the table is sized once
+     * for all of them instead of doubling while they are added.
+     * @param keys - input words
+     */
+    public void addAll(Collection<String> keys) {
+        int capacity = capacityFor(_size + keys.size());
+        if (capacity > _keys.length)
+            allocate(capacity);
+        int size = _size;
+        for (String key : keys) {
+            key = lowerCase(key);
+            int hash = hashLowerCase(key);
+            if (find(key, hash) < 0)
+                insert(key, hash);
+        }
+        if (_size != size) {
+            indexLengths();
+            _version = VERSIONS.incrementAndGet();
+        }
     }
 
     /**
      * Check if the dictionary contains a certain word
+     * (the word is compared in lower case without creating a lower cased copy)
      * @param key - input word
      * @return true when the dictionary contains the word, false otherwise
      */
-    public boolean contains(String key) {
-        key = key.toLowerCase();
-        ArrayList<String> list = _array[hash(key)];
-        return (Collections.binarySearch(list, key)!=-1);
+    public boolean contains(CharSequence key) {
+        int hash = hashLowerCase(key);
+        if (_bloom != null && !_bloom.mightContain(hash)) {
+            if (_metrics != null)
+                _metrics.probes(0);
+            return false;
+        }
+        int slot = find(key, hash);
+        if (_metrics != null)
+            _metrics.probes((slot >= 0) ? probeLength(slot) : missLength(hash));
+        return slot >= 0;
+    }
+
+    /**
+     * Puts a Bloom filter in front of the hash table, so most lookups of missing words
+     * are answered without probing the table. The filter is kept up to date
+     * with the added words and is resized with the table.
+     * @param falsePositiveRate - the rate of missing words let through to the table,
+     *                          between 0 and 1 (exclusive), or 0 to remove the filter
+     */
+    public void setBloomFilter(double falsePositiveRate) {
+        if (falsePositiveRate == 0) {
+            _bloom = null;
+            return;
+        }
+        _bloom = new BloomFilter((int) (_keys.length * _loadFactor), falsePositiveRate);
+        _bloomRate = falsePositiveRate;
+        for (int i = 0; i < _keys.length; i++) {
+            if (_keys[i] != null)
+                _bloom.add(_hashes[i]);
+        }
+    }
+
+    /**
+     * @return the Bloom filter in front of the hash table (for its statistics), or null
+     */
+    public BloomFilter getBloomFilter() {
+        return _bloom;
+    }
+
+    /**
+     * Reports the build time and the probe length of every lookup to a metrics sink
+     * @param metrics - the metrics sink, or null to stop measuring
+     */
+    public void setMetrics(SpellCheckMetrics metrics) {
+        _metrics = metrics;
+    }
+
+    /**
+     * @return the amount of words in the dictionary
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * @return a number which changes whenever words are added to the dictionary,
+     * never the same for two dictionaries (unless both are empty) - so a cache can outlive a reload
+     */
+    public long getVersion() {
+        return _version;
+    }
+
+    /**
+     * @return the amount of slots in the hash table
+     */
+    public int capacity() {
+        return _keys.length;
+    }
+
+    /**
+     * @param slot - a slot index between 0 and capacity() - 1
+     * @return the hash stored at the slot (the hash of its lower cased word), 0 for an empty slot
+     */
+    int hashAt(int slot) {
+        return _hashes[slot];
+    }
+
+    /**
+     * Gives access to the table's slots, for scanning every word without copying
+     * @param slot - a slot index between 0 and capacity() - 1
+     * @return the word stored at the slot, or null for an empty slot
+     */
+    public String wordAt(int slot) {
+        return _keys[slot];
+    }
+
+    /**
+     * A secondary index of the table by word length, for searches which can rule
+     * a whole length out. It's kept up to date as words are added.
+     * @param length - a word length
+     * @return the slots of the words of that length, in ascending order (must not be changed)
+     */
+    public int[] slotsOfLength(int length) {
+        return (length >= 0 && length < _slotsByLength.length) ? _slotsByLength[length] : new int[0];
+    }
+
+    /**
+     * @return the length of the longest word in the dictionary
+     */
+    public int maxWordLength() {
+        return _slotsByLength.length - 1;
+    }
+
+    /**
+     * @return the table's words by slot, for Similarity.rank() (must not be changed)
+     */
+    String[] keys() {
+        return _keys;
+    }
+
+    /**
+     * @return the slots of the words of each length, for Similarity.rank() (must not be changed)
+     */
+    int[][] lengthIndex() {
+        return _slotsByLength;
+    }
+
+    /**
+     * Rebuilds the length index in a single pass over the table, once the words stop changing
+     * (the index is built whole, so readers of the dictionary never see it half built)
+     */
+    private void indexLengths() {
+        _slotsByLength = lengthIndex(_keys);
+    }
+
+    /**
+     * Adds a single new slot to the length index - its length is copied into a new array
+     * rather than changed, so a suggestion ranking the old one isn't disturbed
+     */
+    private void indexSlot(int slot, int length) {
+        if (length >= _slotsByLength.length) {
+            _slotsByLength = Arrays.copyOf(_slotsByLength, length + 1);
+            for (int i = 0; i <= length; i++) {
+                if (_slotsByLength[i] == null)
+                    _slotsByLength[i] = new int[0];
+            }
+        }
+        int[] slots = _slotsByLength[length];
+        int at = -Arrays.binarySearch(slots, slot) - 1;
+        int[] added = new int[slots.length + 1];
+        System.arraycopy(slots, 0, added, 0, at);
+        added[at] = slot;
+        System.arraycopy(slots, at, added, at + 1, slots.length - at);
+        _slotsByLength[length] = added;
+    }
+
+    /**
+     * @param keys - a table's words by slot (null for an empty slot)
+     * @return the slots of the words of each length, in ascending order
+     */
+    static int[][] lengthIndex(String[] keys) {
+        int[] counts = new int[1];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                int length = keys[i].length();
+                if (length >= counts.length)
+                    counts = Arrays.copyOf(counts, Math.max(length + 1, counts.length * 2));
+                counts[length]++;
+            }
+        }
+        int maxLength = counts.length - 1;
+        while (maxLength > 0 && counts[maxLength] == 0)
+            maxLength--;
+        int[][] index = new int[maxLength + 1][];
+        for (int length = 0; length <= maxLength; length++)
+            index[length] = new int[counts[length]];
+        int[] filled = new int[maxLength + 1];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                int length = keys[i].length();
+                index[length][filled[length]++] = i;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return all the words of the dictionary, in table order
+     */
+    public String[] getDict() {
+        String[] words = new String[_size];
+        int j = 0;
+        for (int i = 0; i < _keys.length; i++) {
+            if (_keys[i] != null)
+                words[j++] = _keys[i];
+        }
+        return words;
     }
 
-    public ArrayList<String>[] getDict() {
-        return _array.clone();
+    /**
+     * @return an immutable copy of the dictionary, which any amount of threads can share
+     */
+    public DictionarySnapshot snapshot() {
+        return new DictionarySnapshot(_hashes.clone(), _keys.clone(), _slotsByLength.clone(), _size, _version,
+                (_bloom != null) ? _bloom.copy() : null);
+    }
+
+    /**
+     * @return the ratio of used slots in the hash table
+     */
+    public double loadFactor() {
+        return (double) _size / _keys.length;
+    }
+
+    /**
+     * @return the average amount of slots probed by a successful lookup
+     */
+    public double averageProbeLength() {
+        if (_size == 0)
+            return 0;
+        long total = 0;
+        for (int i = 0; i < _keys.length; i++) {
+            if (_keys[i] != null)
+                total += probeLength(i);
+        }
+        return (double) total / _size;
+    }
+
+    /**
+     * @return the maximal amount of slots probed by a successful lookup
+     */
+    public int maxProbeLength() {
+        int max = 0;
+        for (int i = 0; i < _keys.length; i++) {
+            if (_keys[i] != null)
+                max = Math.max(max, probeLength(i));
+        }
+        return max;
+    }
+
+    /**
+     * @return the amount of slots probed to reach the word at a given slot, from its home slot
+     */
+    private int probeLength(int slot) {
+        int mask = _keys.length - 1;
+        return ((slot - home(_hashes[slot])) & mask) + 1;
+    }
+
+    /**
+     * @return the amount of slots probed by an unsuccessful lookup of a hash, up to the empty slot ending it
+     */
+    private int missLength(int hash) {
+        int mask = _keys.length - 1;
+        int length = 1;
+        for (int slot = home(hash); _keys[slot] != null; slot = (slot + 1) & mask)
+            length++;
+        return length;
+    }
+
+    /**
+     * Lower cases a key one char at a time, exactly as the lookups fold it
+     * (String.toLowerCase() depends on the locale and may change the word's length)
+     * @return the lower cased key, the key itself when it has no upper case char
+     */
+    static String lowerCase(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            if (Character.toLowerCase(key.charAt(i)) != key.charAt(i)) {
+                char[] chars = key.toCharArray();
+                for (int j = i; j < chars.length; j++)
+                    chars[j] = Character.toLowerCase(chars[j]);
+                return new String(chars);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * The full hash of a key as if it was lower cased, which the table stores and probes by
+     */
+    static int hashLowerCase(CharSequence key) {
+        int hash = 0;
+        for (int i = 0; i < key.length(); i++) {
+            hash = Character.toLowerCase(key.charAt(i)) + ((hash << 5) - hash);
+        }
+        return hash;
+    }
+
+    /**
+     * @return the slot a hash starts probing from
+     */
+    private int home(int hash) {
+        return homeSlot(hash, _shift);
+    }
+
+    /**
+     * The slot a hash starts probing from, in a table of 2^(32 - shift) slots
+     * (shared with MappedDictionary, which keeps this table's layout)
+     */
+    static int homeSlot(int hash, int shift) {
+        return (hash * FIBONACCI_MULTIPLIER) >>> shift;
+    }
+
+    /**
+     * Probes the table for a key, comparing it in lower case
+     * @return the slot of the key, or -1 if it isn't in the table
+     */
+    private int find(CharSequence key, int hash) {
+        int mask = _keys.length - 1;
+        for (int slot = home(hash); ; slot = (slot + 1) & mask) {
+            String stored = _keys[slot];
+            if (stored == null)
+                return -1;
+            if (_hashes[slot] == hash && equalsLowerCase(stored, key))
+                return slot;
+        }
+    }
+
+    /**
+     * Compares a stored (lower case) word with a key in any case
+     */
+    static boolean equalsLowerCase(String stored, CharSequence key) {
+        if (stored.length() != key.length())
+            return false;
+        for (int i = 0; i < stored.length(); i++) {
+            if (stored.charAt(i) != Character.toLowerCase(key.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Puts a key which isn't in the table at the first empty slot of its probe sequence
+     * @return the slot the key was put at
+     */
+    private int insert(String key, int hash) {
+        int mask = _keys.length - 1;
+        int slot = home(hash);
+        while (_keys[slot] != null)
+            slot = (slot + 1) & mask;
+        _keys[slot] = key;
+        _hashes[slot] = hash;
+        _size++;
+        if (_bloom != null)
+            _bloom.add(hash);
+        return slot;
+    }
+
+    /**
+     * (Re)allocates the table with a given capacity, moving the existing words by their stored hashes
+     */
+    private void allocate(int capacity) {
+        String[] oldKeys = _keys;
+        int[] oldHashes = _hashes;
+        _keys = new String[capacity];
+        _hashes = new int[capacity];
+        _shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        _size = 0;
+        if (_bloom != null)
+            _bloom = new BloomFilter((int) (capacity * _loadFactor), _bloomRate);
+        if (oldKeys != null) {
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null)
+                    insert(oldKeys[i], oldHashes[i]);
+            }
+        }
+    }
+
+    /**
+     * @return the smallest power of 2 capacity holding the given amount of words within the load factor
+     */
+    private int capacityFor(int words) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity * _loadFactor < words)
+            capacity *= 2;
+        return capacity;
     }
 
 }
@@ -0,0 +1,121 @@
+/**
+ * Dictionary Snapshot - an immutable copy of a Dictionary's hash table,
+ * taken by Dictionary.snapshot(). Nothing in it ever changes, so any amount
+ * of threads can share a single snapshot and query it without locks.
+ * <p>The per check state lives elsewhere: newChecker() gives a lightweight
+ * SpellCheck (its own text tree and scoring buffers) over the shared snapshot,
+ * one per thread or per request.</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+public final class DictionarySnapshot implements Lexicon, SuggestionEngine {
+
+    private final int[] _hashes;
+    private final String[] _keys; // null marks an empty slot
+    private final int[][] _slotsByLength; // the length index, for pruned suggestions
+    private final int _size;
+    private final int _shift;
+    private final long _version;
+    private final BloomFilter _bloom; // null when there is no filter in front of the table
+
+    /**
+     * @param hashes        - the stored hashes, owned by the snapshot from now on
+     * @param keys          - the words, slot by slot, owned by the snapshot from now on
+     * @param slotsByLength - the slots of the words of each length, owned by the snapshot from now on
+     * @param size          - the amount of words
+     * @param version       - the version of the dictionary the snapshot was taken from
+     * @param bloom         - a filter of the words owned by the snapshot from now on, or null
+     */
+    DictionarySnapshot(int[] hashes, String[] keys, int[][] slotsByLength, int size, long version, BloomFilter bloom) {
+        _hashes = hashes;
+        _keys = keys;
+        _slotsByLength = slotsByLength;
+        _size = size;
+        _shift = 32 - Integer.numberOfTrailingZeros(keys.length);
+        _version = version;
+        _bloom = bloom;
+    }
+
+    /**
+     * @return a new spell checker over this snapshot, for a single thread
+     */
+    public SpellCheck newChecker() {
+        return new SpellCheck(this, this);
+    }
+
+    /**
+     * @return the version of the dictionary the snapshot was taken from
+     */
+    public long getVersion() {
+        return _version;
+    }
+
+    /**
+     * @return the amount of words in the snapshot
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * @return the amount of slots in the hash table
+     */
+    public int capacity() {
+        return _keys.length;
+    }
+
+    /**
+     * @param slot - a slot index between 0 and capacity() - 1
+     * @return the word stored at the slot, or null for an empty slot
+     */
+    public String wordAt(int slot) {
+        return _keys[slot];
+    }
+
+    /**
+     * Check if the snapshot contains a certain word
+     *
+     * @param key - input word
+     * @return true when the snapshot contains the word, false otherwise
+     */
+    public boolean contains(CharSequence key) {
+        int hash = Dictionary.hashLowerCase(key);
+        if (_bloom != null && !_bloom.mightContain(hash))
+            return false;
+        int mask = _keys.length - 1;
+        for (int slot = Dictionary.homeSlot(hash, _shift); ; slot = (slot + 1) & mask) {
+            String stored = _keys[slot];
+            if (stored == null)
+                return false;
+            if (_hashes[slot] == hash && Dictionary.equalsLowerCase(stored, key))
+                return true;
+        }
+    }
+
+    /**
+     * Suggests a word by the snapshot's length index (Similarity.rank()), the same word
+     * SpellCheck.scanSuggestion() would suggest by scoring every word.
+     * Thread safe - every call uses its own scoring buffers.
+     *
+     * @param input - the misspelled word
+     * @return the suggested word, or null for an empty snapshot
+     */
+    public String suggest(String input) {
+        return suggest(input, new Similarity());
+    }
+
+    /**
+     * Suggests a word like suggest(input), ranked by the caller's kernel -
+     * so a checker of the snapshot counts the words scored for it
+     *
+     * @param input      - the misspelled word
+     * @param similarity - the caller's scoring kernel, used by the calling thread only
+     * @return the suggested word, or null for an empty snapshot
+     */
+    public String suggest(String input, Similarity similarity) {
+        if (_size == 0)
+            return null;
+        return _keys[similarity.rank(input, 1, _keys, _slotsByLength)[0]];
+    }
+}
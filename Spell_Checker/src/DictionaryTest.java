@@ -0,0 +1,83 @@
+/**
+ * Dictionary Test - checks that every added word is found again, in any case,
+ * by the Dictionary, its snapshot, a compiled MappedDictionary and a DawgDictionary -
+ * for non ASCII words too, whose case folding differs from String.toLowerCase()
+ * (a dotted capital I, a final sigma, the Kelvin sign, a Turkish default locale).
+ * Exits with an error on the first word which isn't found.
+ * <p>Run: java DictionaryTest</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+public class DictionaryTest {
+
+    private static final List<String> WORDS = Arrays.asList(
+            "\u0130stanbul", "ISTANBUL", "Iris", "\u039F\u0394\u039F\u03A3", "\u03BF\u03B4\u03CC\u03C2",
+            "Stra\u00DFe", "\u00C6ON", "caf\u00E9", "\u0178ES", "KELVIN\u212A", "word", "Word");
+
+    public static void main(String[] args) throws IOException {
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR")); // String.toLowerCase() turns 'I' into a dotless i
+        try {
+            check(false);
+            check(true);
+        } finally {
+            Locale.setDefault(locale);
+        }
+        System.out.println("DictionaryTest passed: " + WORDS.size() + " words, added one by one and in bulk");
+    }
+
+    /**
+     * Adds the words and looks each of them up as added, upper cased and lower cased by every lexicon
+     */
+    private static void check(boolean bulk) throws IOException {
+        Dictionary dict = new Dictionary();
+        if (bulk) {
+            dict.addAll(WORDS);
+        } else {
+            for (String word : WORDS)
+                dict.add(word);
+        }
+        File compiled = File.createTempFile("dictionary", ".bin");
+        compiled.deleteOnExit();
+        MappedDictionary.compile(dict, compiled.getPath());
+        Lexicon[] lexicons = {dict, dict.snapshot(), MappedDictionary.open(compiled.getPath()),
+                new DawgDictionary(dict, 1)};
+        for (String word : WORDS) {
+            String lower = Dictionary.lowerCase(word);
+            String upper = upperCase(word);
+            // the case is folded char by char, so an upper cased final sigma folds to a plain sigma
+            String[] forms = Dictionary.lowerCase(upper).equals(lower)
+                    ? new String[]{word, upper, lower} : new String[]{word, lower};
+            for (Lexicon lexicon : lexicons) {
+                for (String form : forms) {
+                    if (!lexicon.contains(form))
+                        fail(word, lexicon.getClass().getName() + " doesn't contain \"" + form + "\""
+                                + (bulk ? " (added in bulk)" : ""));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the word upper cased one char at a time, so it keeps its length
+     */
+    private static String upperCase(String word) {
+        char[] chars = word.toCharArray();
+        for (int i = 0; i < chars.length; i++)
+            chars[i] = Character.toUpperCase(chars[i]);
+        return new String(chars);
+    }
+
+    private static void fail(String word, String message) {
+        System.err.println("DictionaryTest failed for \"" + word + "\": " + message);
+        System.exit(1);
+    }
+}
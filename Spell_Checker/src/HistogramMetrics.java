@@ -0,0 +1,160 @@
+/**
+ * Histogram Metrics - in memory SpellCheckMetrics: counters, and latency
+ * histograms with power of 2 buckets (bucket i counts the values in [2^(i-1), 2^i)),
+ * all lock free so every checking thread can record at once.
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class HistogramMetrics implements SpellCheckMetrics {
+
+    private final ConcurrentHashMap<String, LongAdder> _phaseNanos = new ConcurrentHashMap<>();
+    private final LongAdder _tokens = new LongAdder();
+    private final LongAdder _tokenNanos = new LongAdder();
+    private final LongAdder _candidates = new LongAdder();
+    private final Histogram _lookups = new Histogram();
+    private final Histogram _suggestions = new Histogram();
+    private final Histogram _probes = new Histogram();
+
+    public void phase(String phase, long nanos) {
+        _phaseNanos.computeIfAbsent(phase, p -> new LongAdder()).add(nanos);
+    }
+
+    public void tokens(long tokens, long nanos) {
+        _tokens.add(tokens);
+        _tokenNanos.add(nanos);
+    }
+
+    public void lookup(long nanos) {
+        _lookups.record(nanos);
+    }
+
+    public void suggestion(long nanos, long candidates) {
+        _suggestions.record(nanos);
+        _candidates.add(candidates);
+    }
+
+    public void probes(int probes) {
+        _probes.record(probes);
+    }
+
+    /**
+     * @param phase - the phase's name
+     * @return the total time spent in a phase, in nanoseconds
+     */
+    public long phaseNanos(String phase) {
+        LongAdder nanos = _phaseNanos.get(phase);
+        return (nanos == null) ? 0 : nanos.sum();
+    }
+
+    /**
+     * @return the tokenizing throughput, in tokens per second
+     */
+    public double tokensPerSecond() {
+        long nanos = _tokenNanos.sum();
+        return (nanos == 0) ? 0 : _tokens.sum() * 1e9 / nanos;
+    }
+
+    /**
+     * @return the histogram of the lookup latencies, in nanoseconds
+     */
+    public Histogram lookups() {
+        return _lookups;
+    }
+
+    /**
+     * @return the histogram of the suggestion latencies, in nanoseconds
+     */
+    public Histogram suggestions() {
+        return _suggestions;
+    }
+
+    /**
+     * @return the histogram of the hash table chain lengths walked by lookups
+     */
+    public Histogram probes() {
+        return _probes;
+    }
+
+    /**
+     * @return the average amount of words scored per suggestion
+     */
+    public double candidatesPerSuggestion() {
+        long count = _suggestions.count();
+        return (count == 0) ? 0 : (double) _candidates.sum() / count;
+    }
+
+    /**
+     * @return a human readable report of all the metrics
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (String phase : _phaseNanos.keySet()) {
+            sb.append(String.format("phase %-16s %12.3f ms%n", phase, phaseNanos(phase) / 1e6));
+        }
+        sb.append(String.format("tokens/sec %.0f%n", tokensPerSecond()));
+        sb.append("lookup ns      ").append(_lookups).append('\n');
+        sb.append("suggestion ns  ").append(_suggestions).append('\n');
+        sb.append(String.format("candidates/suggestion %.1f%n", candidatesPerSuggestion()));
+        sb.append("chain length   ").append(_probes).append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * A lock free histogram of non negative values in power of 2 buckets
+     */
+    public static class Histogram {
+        private final AtomicLongArray _buckets = new AtomicLongArray(65);
+        private final LongAdder _count = new LongAdder();
+        private final LongAdder _sum = new LongAdder();
+
+        /**
+         * @param value - the value to record
+         */
+        public void record(long value) {
+            _buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(Math.max(value, 0)));
+            _count.increment();
+            _sum.add(value);
+        }
+
+        /**
+         * @return the amount of recorded values
+         */
+        public long count() {
+            return _count.sum();
+        }
+
+        /**
+         * @return the average of the recorded values
+         */
+        public double mean() {
+            long count = _count.sum();
+            return (count == 0) ? 0 : (double) _sum.sum() / count;
+        }
+
+        /**
+         * @param p - the percentile, between 0 and 1
+         * @return an upper bound of the p-th percentile (the end of its bucket)
+         */
+        public long percentile(double p) {
+            long rank = (long) Math.ceil(p * _count.sum());
+            long seen = 0;
+            for (int i = 0; i < _buckets.length(); i++) {
+                seen += _buckets.get(i);
+                if (seen >= rank && seen > 0)
+                    return (i == 0) ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+            }
+            return 0;
+        }
+
+        public String toString() {
+            return String.format("count %d, mean %.1f, p50 <= %d, p99 <= %d",
+                    count(), mean(), percentile(0.5), percentile(0.99));
+        }
+    }
+}
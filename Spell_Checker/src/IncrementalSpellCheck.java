@@ -0,0 +1,325 @@
+/**
+ * Incremental Spell Check - keeps a document's lines and the misspellings found on each,
+ * for editors which re-check the document after every change.
+ * An edit replaces a range of lines; only its new lines are tokenized, and a new line
+ * whose content was already checked (it was moved, duplicated, or an undo brought it back)
+ * reuses that line's results, keyed by the line's content.
+ * The cached results are dropped once the checker's dictionary (or snapshot) version changes,
+ * like a SuggestionCache's.
+ * <p>The lines are kept in a gap buffer whose free cells stay where the document was last edited,
+ * so an edit moves only the lines between it and the former edit, and the cache is trimmed only
+ * after it grew by more lines than the document has. So the cost of a re-check depends on
+ * the size of the edit (and on how far it is from the former one), not on the size of the document -
+ * only getMisspellings() of the whole document walks all of its lines.</p>
+ * <p>Lines are numbered from 1, like Misspelling.getLine(). The results of a line
+ * don't depend on its number - its misspellings are given the line's current number
+ * whenever they are reported. Not thread safe, like the SpellCheck it uses.</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+public class IncrementalSpellCheck {
+
+    private static final int MIN_CACHE_SLACK = 1024; // stale cached lines tolerated before the cache is trimmed
+
+    private final SpellCheck _checker;
+    private final Lines _lines; // the results of each line, holding its text
+    private final HashMap<String, LineResult> _cache; // the results by line content
+    private long _cacheVersion; // the dictionary version the cached results were checked by
+    private long _checkedLines;
+
+    /**
+     * @param checker - the spell checker to look the words up and suggest by
+     */
+    public IncrementalSpellCheck(SpellCheck checker) {
+        _checker = checker;
+        _lines = new Lines();
+        _cache = new HashMap<>();
+    }
+
+    /**
+     * Checks a whole new document, forgetting the former one (but not its checked lines)
+     *
+     * @param text - the document, its lines separated by '\n'
+     * @return the misspellings of the document, in text order
+     */
+    public List<Misspelling> open(String text) {
+        _lines.clear();
+        return replaceLines(1, 1, text);
+    }
+
+    /**
+     * Replaces a range of the document's lines by new text and checks only the new lines.
+     * from == to inserts the text before line from, an empty text deletes the range.
+     *
+     * @param from - the first replaced line (1 to lineCount() + 1)
+     * @param to   - the line after the last replaced one (from to lineCount() + 1)
+     * @param text - the new lines separated by '\n' (a trailing '\n' doesn't start another line)
+     * @return the misspellings of the new lines, in text order
+     */
+    public List<Misspelling> replaceLines(int from, int to, String text) {
+        if (from < 1 || to < from || to > _lines.size() + 1)
+            throw new IndexOutOfBoundsException("lines " + from + " to " + to + " of " + _lines.size());
+        ArrayList<String> lines = split(text);
+        long version = _checker.version();
+        if (version != _cacheVersion) { // words were added since the cached lines were checked
+            _cache.clear();
+            _cacheVersion = version;
+        }
+        LineResult[] results = new LineResult[lines.size()];
+        LineResult.Builder[] builders = new LineResult.Builder[lines.size()]; // for the lines which aren't cached
+        boolean uncached = false;
+        for (int i = 0; i < lines.size(); i++) {
+            results[i] = _cache.get(lines.get(i));
+            if (results[i] == null) {
+                builders[i] = new LineResult.Builder();
+                uncached = true;
+            }
+        }
+        if (uncached)
+            check(text, builders);
+        for (int i = 0; i < lines.size(); i++) {
+            if (results[i] == null) {
+                results[i] = builders[i].build(lines.get(i));
+                _cache.put(lines.get(i), results[i]);
+                _checkedLines++;
+            }
+        }
+        _lines.replace(from - 1, to - 1, results);
+        trimCache();
+        ArrayList<Misspelling> misspellings = new ArrayList<>();
+        for (int i = 0; i < results.length; i++)
+            results[i].report(from + i, misspellings);
+        return misspellings;
+    }
+
+    /**
+     * @return the misspellings of the whole document, in text order
+     */
+    public List<Misspelling> getMisspellings() {
+        ArrayList<Misspelling> misspellings = new ArrayList<>();
+        for (int i = 0; i < _lines.size(); i++)
+            _lines.get(i).report(i + 1, misspellings);
+        return misspellings;
+    }
+
+    /**
+     * @param line - a line number
+     * @return the misspellings of the line, in text order
+     */
+    public List<Misspelling> getMisspellings(int line) {
+        ArrayList<Misspelling> misspellings = new ArrayList<>();
+        result(line).report(line, misspellings);
+        return misspellings;
+    }
+
+    /**
+     * @return the amount of lines in the document
+     */
+    public int lineCount() {
+        return _lines.size();
+    }
+
+    /**
+     * @param line - a line number
+     * @return the line's text
+     */
+    public String getLine(int line) {
+        return result(line)._text;
+    }
+
+    /**
+     * @return the amount of lines actually tokenized and checked so far (the others were cached)
+     */
+    public long getCheckedLines() {
+        return _checkedLines;
+    }
+
+    /**
+     * Forgets every checked line, for example after the checker's settings changed
+     * (a change of the dictionary's words is noticed by its version without it).
+     * The document's current results are kept until its lines are replaced or re-opened.
+     */
+    public void invalidate() {
+        _cache.clear();
+    }
+
+    /**
+     * @return the results of a line, by its number
+     */
+    private LineResult result(int line) {
+        if (line < 1 || line > _lines.size())
+            throw new IndexOutOfBoundsException("line " + line + " of " + _lines.size());
+        return _lines.get(line - 1);
+    }
+
+    /**
+     * Tokenizes the new text in a single pass and checks the words of the lines which have builders
+     */
+    private void check(String text, LineResult.Builder[] builders) {
+        boolean normalize = _checker.isNormalizeWords();
+        Tokenizer words = new Tokenizer(new StringReader(text), normalize, normalize);
+        while (words.next()) {
+            int line = (int) words.getLine() - 1;
+            if (line >= builders.length || builders[line] == null || _checker.isCorrect(words))
+                continue; // a cached line, or a correctly spelled word
+            String word = words.toString();
+            builders[line].add(word, _checker.getSuggestion(word), words.getColumn());
+        }
+    }
+
+    /**
+     * Drops the cached lines which are no longer in the document, once there are many of them -
+     * only after the cache grew past twice the document, so the walk is amortized over the edits since
+     */
+    private void trimCache() {
+        if (_cache.size() <= 2 * _lines.size() + MIN_CACHE_SLACK)
+            return;
+        _cache.clear();
+        for (int i = 0; i < _lines.size(); i++) {
+            LineResult line = _lines.get(i);
+            _cache.put(line._text, line);
+        }
+    }
+
+    /**
+     * @return the lines of a text, a trailing '\n' ends the last line rather than starting another one
+     */
+    private static ArrayList<String> split(String text) {
+        ArrayList<String> lines = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0)
+                end = text.length();
+            lines.add(text.substring(start, end));
+            start = end + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * The document's lines as a gap buffer - the lines before the gap at the start of the array,
+     * the lines after it at its end, and the gap where the former edit left it
+     */
+    private static final class Lines {
+        private static final int MIN_CAPACITY = 16;
+
+        private LineResult[] _lines = new LineResult[MIN_CAPACITY];
+        private int _gapStart;
+        private int _gapEnd = MIN_CAPACITY;
+
+        private int size() {
+            return _lines.length - (_gapEnd - _gapStart);
+        }
+
+        private LineResult get(int i) {
+            return _lines[(i < _gapStart) ? i : i + (_gapEnd - _gapStart)];
+        }
+
+        private void clear() {
+            _lines = new LineResult[MIN_CAPACITY];
+            _gapStart = 0;
+            _gapEnd = MIN_CAPACITY;
+        }
+
+        /**
+         * Replaces the lines from index from to index to (exclusive) by new lines
+         */
+        private void replace(int from, int to, LineResult[] lines) {
+            moveGap(from);
+            Arrays.fill(_lines, _gapEnd, _gapEnd + (to - from), null); // deleted into the gap
+            _gapEnd += to - from;
+            if (_gapEnd - _gapStart < lines.length)
+                grow(lines.length);
+            System.arraycopy(lines, 0, _lines, _gapStart, lines.length);
+            _gapStart += lines.length;
+        }
+
+        /**
+         * Moves the gap to start before the line at an index, moving only the lines in between
+         */
+        private void moveGap(int at) {
+            int gap = _gapEnd - _gapStart;
+            if (at < _gapStart) {
+                int moved = _gapStart - at;
+                System.arraycopy(_lines, at, _lines, at + gap, moved);
+                Arrays.fill(_lines, at, Math.min(at + gap, _gapStart), null);
+            } else if (at > _gapStart) {
+                int moved = at - _gapStart;
+                System.arraycopy(_lines, _gapEnd, _lines, _gapStart, moved);
+                Arrays.fill(_lines, Math.max(_gapEnd, at), at + gap, null);
+            }
+            _gapStart = at;
+            _gapEnd = at + gap;
+        }
+
+        /**
+         * Enlarges the array so the gap holds at least an amount of lines
+         */
+        private void grow(int lines) {
+            int after = _lines.length - _gapEnd;
+            int capacity = Math.max(_lines.length * 2, size() + lines + MIN_CAPACITY);
+            LineResult[] grown = new LineResult[capacity];
+            System.arraycopy(_lines, 0, grown, 0, _gapStart);
+            System.arraycopy(_lines, _gapEnd, grown, capacity - after, after);
+            _lines = grown;
+            _gapEnd = capacity - after;
+        }
+    }
+
+    /**
+     * A line and its misspellings, without its number - immutable, shared by equal lines
+     */
+    private static final class LineResult {
+        private static final String[] NO_WORDS = new String[0];
+
+        private final String _text;
+        private final String[] _words;
+        private final String[] _suggestions;
+        private final int[] _columns;
+
+        private LineResult(String text, String[] words, String[] suggestions, int[] columns) {
+            _text = text;
+            _words = words;
+            _suggestions = suggestions;
+            _columns = columns;
+        }
+
+        /**
+         * Adds the line's misspellings, numbered by the line's current number
+         */
+        private void report(int line, List<Misspelling> misspellings) {
+            for (int i = 0; i < _words.length; i++)
+                misspellings.add(new Misspelling(_words[i], _suggestions[i], line, _columns[i]));
+        }
+
+        private static final class Builder {
+            private final ArrayList<String> _words = new ArrayList<>();
+            private final ArrayList<String> _suggestions = new ArrayList<>();
+            private final ArrayList<Integer> _columns = new ArrayList<>();
+
+            private void add(String word, String suggestion, int column) {
+                _words.add(word);
+                _suggestions.add(suggestion);
+                _columns.add(column);
+            }
+
+            private LineResult build(String text) {
+                if (_words.isEmpty())
+                    return new LineResult(text, NO_WORDS, NO_WORDS, new int[0]);
+                int[] columns = new int[_columns.size()];
+                for (int i = 0; i < columns.length; i++)
+                    columns[i] = _columns.get(i);
+                return new LineResult(text, _words.toArray(NO_WORDS), _suggestions.toArray(NO_WORDS), columns);
+            }
+        }
+    }
+}
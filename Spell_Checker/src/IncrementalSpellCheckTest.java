@@ -0,0 +1,164 @@
+/**
+ * Incremental Spell Check Test - applies 20,000 random edits to a document through an
+ * IncrementalSpellCheck and checks it against a full re-check of the whole text by
+ * SpellCheck.stream() after every one of them: the same misspellings, suggestions, lines and columns,
+ * the same lines, and the edit's own misspellings equal to the full check's on its new lines.
+ * Most edits are near the former one, the others anywhere, so the lines' gap buffer moves
+ * both ways and grows in the middle; new lines are often copies of the document's lines,
+ * so they come from the cache, and words are added to the dictionary now and then -
+ * the document is re-opened then, and none of its lines may come from the dropped cache.
+ * An edit must not check more lines than it brings.
+ * Runs with and without normalized words. Exits with an error on the first difference.
+ * <p>Run: java IncrementalSpellCheckTest</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class IncrementalSpellCheckTest {
+
+    private static final int EDITS = 10_000; // for each normalization
+    private static final int OPEN_LINES = 50;
+    private static final int MAX_LINES = 300; // a longer document only loses lines, keeping the full checks short
+    private static final int ADD_WORD_EVERY = 700;
+    private static final int REOPEN_EVERY = 4_000;
+    private static final List<String> WORDS = Arrays.asList("the", "word", "spell", "check", "line", "edit", "caf\u00E9");
+    private static final String[] TOKENS = {
+            "the", "The", "word", "WORD", "spel", "chek", "lne", "edit", "edt", "caf\u00E9", "cafe",
+            "(word),", "\"spell\"", "--", "x\uD835\uDC00y", "speling", "wrod"};
+    private static final String[] ADDED = {"spel", "chek", "lne", "edt", "cafe", "speling", "wrod"};
+
+    private static int _edit;
+
+    public static void main(String[] args) {
+        for (boolean normalize : new boolean[]{false, true})
+            run(normalize, new Random(normalize ? 2025 : 2024));
+        System.out.println("IncrementalSpellCheckTest passed: " + 2 * EDITS + " edits, normalized and not");
+    }
+
+    private static void run(boolean normalize, Random random) {
+        Dictionary dict = new Dictionary();
+        dict.addAll(WORDS);
+        SpellCheck checker = new SpellCheck(dict);
+        checker.setNormalizeWords(normalize);
+        SpellCheck reference = new SpellCheck(dict);
+        reference.setNormalizeWords(normalize);
+        IncrementalSpellCheck document = new IncrementalSpellCheck(checker);
+        List<String> lines = new ArrayList<>();
+        int added = 0;
+        int last = 1;
+        for (_edit = 0; _edit < EDITS; _edit++) {
+            if (_edit % REOPEN_EVERY == 0) {
+                lines = newLines(OPEN_LINES, lines, random);
+                List<Misspelling> found = document.open(text(lines));
+                compare(normalize, found, check(reference, lines), "open()");
+            }
+            if (_edit % ADD_WORD_EVERY == ADD_WORD_EVERY - 1 && added < ADDED.length) {
+                dict.add(ADDED[added++]); // the document's lines keep their results until re-opened
+                List<Misspelling> found = document.open(text(lines));
+                compare(normalize, found, check(reference, lines), "open() after adding \"" + ADDED[added - 1] + "\"");
+            }
+            int from = (random.nextInt(4) > 0) // usually near the former edit
+                    ? Math.max(1, Math.min(lines.size() + 1, last + random.nextInt(7) - 3))
+                    : 1 + random.nextInt(lines.size() + 1);
+            int to = Math.min(lines.size() + 1, from + random.nextInt(5));
+            int count = (lines.size() > MAX_LINES) ? 0 : (random.nextInt(50) == 0) ? 100 : random.nextInt(5);
+            List<String> replacing = newLines(count, lines, random);
+            long checkedLines = document.getCheckedLines();
+            List<Misspelling> found = document.replaceLines(from, to, text(replacing));
+            if (document.getCheckedLines() - checkedLines > replacing.size())
+                fail(normalize, "checked " + (document.getCheckedLines() - checkedLines) + " lines of "
+                        + replacing.size() + " new ones");
+            lines.subList(from - 1, to - 1).clear();
+            lines.addAll(from - 1, replacing);
+            last = from;
+            List<Misspelling> full = check(reference, lines);
+            List<Misspelling> edited = new ArrayList<>();
+            for (Misspelling misspelling : full) {
+                if (misspelling.getLine() >= from && misspelling.getLine() < from + replacing.size())
+                    edited.add(misspelling);
+            }
+            compare(normalize, found, edited, "replaceLines(" + from + ", " + to + ")");
+            compare(normalize, document.getMisspellings(), full, "getMisspellings()");
+            if (document.lineCount() != lines.size())
+                fail(normalize, "lineCount() is " + document.lineCount() + ", expected " + lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                if (!document.getLine(i + 1).equals(lines.get(i)))
+                    fail(normalize, "line " + (i + 1) + " is \"" + document.getLine(i + 1) + "\", expected \""
+                            + lines.get(i) + "\"");
+            }
+        }
+    }
+
+    /**
+     * @return new lines - empty, random tokens, or a copy of one of the document's lines
+     */
+    private static List<String> newLines(int count, List<String> document, Random random) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(10);
+            if (kind == 0) {
+                lines.add("");
+            } else if (kind < 4 && !document.isEmpty()) {
+                lines.add(document.get(random.nextInt(document.size())));
+            } else {
+                StringBuilder line = new StringBuilder();
+                for (int j = random.nextInt(6); j >= 0; j--)
+                    line.append(TOKENS[random.nextInt(TOKENS.length)]).append(random.nextInt(4) == 0 ? "  " : " ");
+                lines.add(line.toString());
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * @return the lines joined, every one ended by '\n'
+     */
+    private static String text(List<String> lines) {
+        StringBuilder text = new StringBuilder();
+        for (String line : lines)
+            text.append(line).append('\n');
+        return text.toString();
+    }
+
+    /**
+     * @return the misspellings of the whole document, checked at once
+     */
+    private static List<Misspelling> check(SpellCheck reference, List<String> lines) {
+        List<Misspelling> found = new ArrayList<>();
+        reference.stream(new StringReader(text(lines)), 0, found::add);
+        return found;
+    }
+
+    private static void compare(boolean normalize, List<Misspelling> found, List<Misspelling> expected, String what) {
+        List<String> described = describe(found);
+        List<String> full = describe(expected);
+        for (int i = 0; i < Math.max(described.size(), full.size()); i++) {
+            String misspelling = (i < described.size()) ? described.get(i) : "nothing";
+            String reference = (i < full.size()) ? full.get(i) : "nothing";
+            if (!misspelling.equals(reference))
+                fail(normalize, what + " gave " + misspelling + " as misspelling " + (i + 1)
+                        + ", the full check " + reference);
+        }
+    }
+
+    private static List<String> describe(List<Misspelling> misspellings) {
+        List<String> described = new ArrayList<>(misspellings.size());
+        for (Misspelling misspelling : misspellings)
+            described.add(misspelling.getWord() + "->" + misspelling.getSuggestion()
+                    + "@" + misspelling.getLine() + ":" + misspelling.getColumn());
+        return described;
+    }
+
+    private static void fail(boolean normalize, String message) {
+        System.err.println("IncrementalSpellCheckTest failed at edit " + _edit + (normalize ? " normalized" : "")
+                + ": " + message);
+        System.exit(1);
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * JFR Metrics - SpellCheckMetrics reported as custom Java Flight Recorder events,
+ * to be recorded with the rest of a JFR recording.
+ * The per word events (lookups and probes) are disabled by default,
+ * enable them in the recording settings when needed.
+ * An event is only built when it's enabled in the running recording.
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+public class JfrMetrics implements SpellCheckMetrics {
+
+    private static final PhaseEvent PHASE = new PhaseEvent();
+    private static final TokensEvent TOKENS = new TokensEvent();
+    private static final LookupEvent LOOKUP = new LookupEvent();
+    private static final SuggestionEvent SUGGESTION = new SuggestionEvent();
+    private static final ProbesEvent PROBES = new ProbesEvent();
+
+    public void phase(String phase, long nanos) {
+        if (PHASE.isEnabled()) {
+            PhaseEvent event = new PhaseEvent();
+            event.phase = phase;
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+
+    public void tokens(long tokens, long nanos) {
+        if (TOKENS.isEnabled()) {
+            TokensEvent event = new TokensEvent();
+            event.tokens = tokens;
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+
+    public void lookup(long nanos) {
+        if (LOOKUP.isEnabled()) {
+            LookupEvent event = new LookupEvent();
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+
+    public void suggestion(long nanos, long candidates) {
+        if (SUGGESTION.isEnabled()) {
+            SuggestionEvent event = new SuggestionEvent();
+            event.nanos = nanos;
+            event.candidates = candidates;
+            event.commit();
+        }
+    }
+
+    public void probes(int probes) {
+        if (PROBES.isEnabled()) {
+            ProbesEvent event = new ProbesEvent();
+            event.probes = probes;
+            event.commit();
+        }
+    }
+
+    @Name("spellcheck.Phase")
+    @Label("Spell Check Phase")
+    @Category("Spell Check")
+    static class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+        @Label("Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+    }
+
+    @Name("spellcheck.Tokens")
+    @Label("Spell Check Tokenizing")
+    @Category("Spell Check")
+    static class TokensEvent extends Event {
+        @Label("Tokens")
+        long tokens;
+        @Label("Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+    }
+
+    @Name("spellcheck.Lookup")
+    @Label("Spell Check Lookup")
+    @Category("Spell Check")
+    @Enabled(false)
+    static class LookupEvent extends Event {
+        @Label("Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+    }
+
+    @Name("spellcheck.Suggestion")
+    @Label("Spell Check Suggestion")
+    @Category("Spell Check")
+    static class SuggestionEvent extends Event {
+        @Label("Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+        @Label("Candidates Scored")
+        long candidates;
+    }
+
+    @Name("spellcheck.Probes")
+    @Label("Spell Check Hash Table Probes")
+    @Category("Spell Check")
+    @Enabled(false)
+    static class ProbesEvent extends Event {
+        @Label("Probes")
+        int probes;
+    }
+}
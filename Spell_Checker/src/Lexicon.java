@@ -0,0 +1,25 @@
+/**
+ * A lexicon - any set of words a text can be spell checked by.
+ * Implemented by the hash table Dictionary and by its alternative backends.
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+public interface Lexicon {
+
+    /**
+     * Check if the lexicon contains a certain word (case insensitive).
+     * Any CharSequence is accepted, such as a Tokenizer's current word,
+     * so a lookup doesn't need a String.
+     *
+     * @param key - input word
+     * @return true when the lexicon contains the word, false otherwise
+     */
+    boolean contains(CharSequence key);
+
+    /**
+     * @return a number which changes whenever the lexicon's words change,
+     * so a cache built on the words knows when to drop them (a lexicon which never changes may keep it 0)
+     */
+    long getVersion();
+}
@@ -0,0 +1,95 @@
+/**
+ * Load Generator - drives a running SpellCheckServer with several pipelining
+ * clients and reports the throughput and the p50/p99 request latencies.
+ * <p>java LoadGenerator port words.txt clients requestsPerClient pipelineDepth</p>
+ * A request's latency is measured from the send of its pipeline window to the read of its response.
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 5) {
+            System.err.println("usage: java LoadGenerator <port> <words.txt> <clients> <requests per client> <pipeline depth>");
+            System.exit(2);
+        }
+        int port = Integer.parseInt(args[0]);
+        String[] words = new String(Files.readAllBytes(Paths.get(args[1])), StandardCharsets.UTF_8).trim().split("\\s+");
+        int clients = Integer.parseInt(args[2]);
+        int requests = Integer.parseInt(args[3]);
+        int depth = Integer.parseInt(args[4]);
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<long[]>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            int offset = c;
+            results.add(pool.submit((Callable<long[]>) () -> runClient(port, words, offset, requests, depth)));
+        }
+        long[] latencies = new long[clients * requests];
+        int n = 0;
+        for (Future<long[]> result : results) {
+            long[] clientLatencies = result.get();
+            System.arraycopy(clientLatencies, 0, latencies, n, clientLatencies.length);
+            n += clientLatencies.length;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        Arrays.sort(latencies);
+        System.out.printf("%d requests in %.2f s: %.0f requests/s, p50 %.3f ms, p99 %.3f ms%n",
+                n, seconds, n / seconds, percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6);
+    }
+
+    /**
+     * Sends a client's requests in pipelined windows
+     *
+     * @return the latency of every request in nanoseconds
+     */
+    private static long[] runClient(int port, String[] words, int offset, int requests, int depth) throws IOException {
+        long[] latencies = new long[requests];
+        try (Socket socket = new Socket("127.0.0.1", port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            for (int sent = 0; sent < requests; sent += depth) {
+                int window = Math.min(depth, requests - sent);
+                long windowStart = System.nanoTime();
+                for (int i = 0; i < window; i++) {
+                    out.write("CHECK " + words[(offset + (sent + i) * 7) % words.length] + "\n");
+                }
+                out.flush();
+                for (int i = 0; i < window; i++) {
+                    if (in.readLine() == null)
+                        throw new IOException("the server closed the connection");
+                    latencies[sent + i] = System.nanoTime() - windowStart;
+                }
+            }
+        }
+        return latencies;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0)
+            return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,266 @@
+/**
+ * Mapped Dictionary - a precompiled, read only dictionary answered straight from
+ * a memory mapped file. compile() writes a Dictionary's hash table, with the
+ * same slots, hashes and probing, followed by a pool of the words' characters;
+ * open() maps that file and contains() probes it without creating any String.
+ * Opening costs no parsing, and processes mapping the same file share its page cache.
+ * <p>File layout (big endian):</p>
+ * <pre>
+ * header: magic, version, flags, words count, capacity, pool length (6 ints)
+ * table:  capacity x (stored hash, pool offset or -1 for an empty slot)
+ * pool:   for every word: its length (unsigned short) and its chars,
+ *         a byte each when FLAG_LATIN1 is set, 2 bytes each otherwise
+ * </pre>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class MappedDictionary implements Lexicon, SuggestionEngine {
+
+    private static final int MAGIC = 0x53504443; // "SPDC"
+    private static final int VERSION = 2; // 2 - the stored hash is the table's hash of the lower cased word
+    private static final int FLAG_LATIN1 = 1;
+    private static final int HEADER_BYTES = 6 * 4;
+    private static final int SLOT_BYTES = 8;
+
+    private final MappedByteBuffer _buffer;
+    private final boolean _latin1;
+    private final int _size;
+    private final int _capacity;
+    private final int _shift;
+    private final int _poolStart;
+    private MappedWord _view;
+    private Similarity _similarity;
+
+    private MappedDictionary(MappedByteBuffer buffer) throws IOException {
+        _buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            throw new IOException("not a compiled dictionary (version " + VERSION + ")");
+        _latin1 = (buffer.getInt(8) & FLAG_LATIN1) != 0;
+        _size = buffer.getInt(12);
+        _capacity = buffer.getInt(16);
+        _shift = 32 - Integer.numberOfTrailingZeros(_capacity);
+        _poolStart = HEADER_BYTES + _capacity * SLOT_BYTES;
+        _view = new MappedWord();
+        _similarity = new Similarity();
+    }
+
+    /**
+     * Compiles a dictionary text file into the binary format:
+     * <p>java MappedDictionary dictionary.txt dictionary.bin</p>
+     *
+     * @param args - the dictionary text file and the compiled file to write
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: java MappedDictionary <dictionary.txt> <compiled file>");
+            System.exit(2);
+        }
+        Dictionary dict = new Dictionary();
+        dict.build(args[0]);
+        compile(dict, args[1]);
+    }
+
+    /**
+     * Writes a dictionary's hash table and words to a compiled file
+     *
+     * @param dict - the dictionary to compile
+     * @param path - the compiled file to write
+     * @throws IOException
+     */
+    public static void compile(Dictionary dict, String path) throws IOException {
+        boolean latin1 = true;
+        for (int i = 0; i < dict.capacity() && latin1; i++) {
+            String word = dict.wordAt(i);
+            for (int j = 0; word != null && j < word.length() && latin1; j++) {
+                latin1 = word.charAt(j) <= 0xFF;
+            }
+        }
+        int[] offsets = new int[dict.capacity()];
+        ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+        DataOutputStream pool = new DataOutputStream(poolBytes);
+        for (int i = 0; i < dict.capacity(); i++) {
+            String word = dict.wordAt(i);
+            if (word == null) {
+                offsets[i] = -1;
+                continue;
+            }
+            if (word.length() > 0xFFFF)
+                throw new IOException("word too long to compile: " + word.length() + " chars");
+            offsets[i] = pool.size();
+            pool.writeShort(word.length());
+            for (int j = 0; j < word.length(); j++) {
+                if (latin1)
+                    pool.writeByte(word.charAt(j));
+                else
+                    pool.writeChar(word.charAt(j));
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(latin1 ? FLAG_LATIN1 : 0);
+            out.writeInt(dict.size());
+            out.writeInt(dict.capacity());
+            out.writeInt(pool.size());
+            for (int i = 0; i < dict.capacity(); i++) {
+                String word = dict.wordAt(i);
+                out.writeInt(word == null ? 0 : dict.hashAt(i));
+                out.writeInt(offsets[i]);
+            }
+            poolBytes.writeTo(out);
+        }
+    }
+
+    /**
+     * Maps a compiled dictionary file
+     *
+     * @param path - the compiled file
+     * @return the mapped dictionary
+     * @throws IOException if the file can't be read or isn't a compiled dictionary
+     */
+    public static MappedDictionary open(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new MappedDictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return the amount of words in the dictionary
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * @return 0, a compiled dictionary never changes
+     */
+    public long getVersion() {
+        return 0;
+    }
+
+    /**
+     * Check if the dictionary contains a certain word, reading only the mapped file
+     *
+     * @param key - input word
+     * @return true when the dictionary contains the word, false otherwise
+     */
+    public boolean contains(CharSequence key) {
+        int hash = Dictionary.hashLowerCase(key);
+        int mask = _capacity - 1;
+        for (int slot = Dictionary.homeSlot(hash, _shift); ; slot = (slot + 1) & mask) {
+            int entry = HEADER_BYTES + slot * SLOT_BYTES;
+            int offset = _buffer.getInt(entry + 4);
+            if (offset < 0)
+                return false;
+            if (_buffer.getInt(entry) == hash && equalsLowerCase(offset, key))
+                return true;
+        }
+    }
+
+    /**
+     * Suggests a word by scoring every word of the file, through a reusable view
+     * of the mapped characters - only the suggested word becomes a String.
+     * <p>not thread safe, unlike contains().</p>
+     *
+     * @param input - the misspelled word
+     * @return the suggested word, or null for an empty dictionary
+     */
+    public String suggest(String input) {
+        return suggest(input, _similarity);
+    }
+
+    /**
+     * Suggests a word like suggest(input), scored by the caller's kernel - not thread safe either
+     *
+     * @param input      - the misspelled word
+     * @param similarity - the caller's scoring kernel
+     * @return the suggested word, or null for an empty dictionary
+     */
+    public String suggest(String input, Similarity similarity) {
+        int potentialOffset = -1;
+        int max = -1;
+        for (int slot = 0; slot < _capacity; slot++) {
+            int offset = _buffer.getInt(HEADER_BYTES + slot * SLOT_BYTES + 4);
+            if (offset < 0)
+                continue;
+            _view.moveTo(offset);
+            int currPotential = similarity.score(_view, input);
+            if (currPotential > max) {
+                max = currPotential;
+                potentialOffset = offset;
+            }
+        }
+        if (potentialOffset < 0)
+            return null;
+        _view.moveTo(potentialOffset);
+        return _view.toString();
+    }
+
+    private boolean equalsLowerCase(int offset, CharSequence key) {
+        int position = _poolStart + offset;
+        int length = _buffer.getShort(position) & 0xFFFF;
+        if (length != key.length())
+            return false;
+        for (int i = 0; i < length; i++) {
+            if (charAt(position, i) != Character.toLowerCase(key.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the index-th char of the word stored at a given pool position
+     */
+    private char charAt(int position, int index) {
+        if (_latin1)
+            return (char) (_buffer.get(position + 2 + index) & 0xFF);
+        return _buffer.getChar(position + 2 + 2 * index);
+    }
+
+    /**
+     * A reusable CharSequence view of a word in the mapped pool
+     */
+    private class MappedWord implements CharSequence {
+        private int position;
+        private int length;
+
+        private void moveTo(int offset) {
+            position = _poolStart + offset;
+            length = _buffer.getShort(position) & 0xFFFF;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public char charAt(int index) {
+            return MappedDictionary.this.charAt(position, index);
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        public String toString() {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = charAt(i);
+            }
+            return new String(chars);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Represents a word which wasn't found in the dictionary,
+ * its correcting suggestion and where it occurred in the text.
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+public class Misspelling {
+
+    private final String _word;
+    private final String _suggestion;
+    private final long _line;
+    private final int _column;
+
+    /**
+     * @param word       - the misspelled word
+     * @param suggestion - the suggested word
+     * @param line       - the line the word starts at (1 based)
+     * @param column     - the column the word starts at (1 based)
+     */
+    public Misspelling(String word, String suggestion, long line, int column) {
+        _word = word;
+        _suggestion = suggestion;
+        _line = line;
+        _column = column;
+    }
+
+    /**
+     * @return the misspelled word
+     */
+    public String getWord() {
+        return _word;
+    }
+
+    /**
+     * @return the suggested word
+     */
+    public String getSuggestion() {
+        return _suggestion;
+    }
+
+    /**
+     * @return the line the word starts at (1 based)
+     */
+    public long getLine() {
+        return _line;
+    }
+
+    /**
+     * @return the column the word starts at (1 based)
+     */
+    public int getColumn() {
+        return _column;
+    }
+
+    /**
+     * @return the message SpellCheck prints for a misspelled word
+     */
+    public String toString() {
+        return "\"" + _word + "\"" + " wasn't found in the dictionary, did you mean: \"" + _suggestion + "\"?";
+    }
+}
@@ -0,0 +1,16 @@
+/**
+ * Receives the misspelled words found by the streaming spell check modes,
+ * in the order they were found.
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+public interface MisspellingListener {
+
+    /**
+     * Called for every reported misspelled word
+     *
+     * @param misspelling - the word, its suggestion and its position
+     */
+    void found(Misspelling misspelling);
+}
@@ -0,0 +1,143 @@
+/**
+ * Parallel Scan Engine - scores every word of the dictionary, like
+ * SpellCheck.scanSuggestion(), but splits the hash table's slots into chunks
+ * scored on a ForkJoinPool. Every chunk keeps its own best word and the chunks
+ * are reduced in table order, preferring the earlier chunk on a tie, so the
+ * result is exactly the sequential scan's.
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ParallelScanEngine implements SuggestionEngine, AutoCloseable {
+
+    private static final int MIN_CHUNK_SLOTS = 1024;
+    private static final int CHUNKS_PER_THREAD = 4; // a few chunks per thread to balance the load
+
+    private final Dictionary _dict;
+    private final ForkJoinPool _pool;
+
+    /**
+     * Creates an engine using one thread per available processor
+     *
+     * @param dict - the dictionary to scan
+     */
+    public ParallelScanEngine(Dictionary dict) {
+        this(dict, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param dict        - the dictionary to scan
+     * @param parallelism - the amount of threads of the engine's pool
+     */
+    public ParallelScanEngine(Dictionary dict, int parallelism) {
+        _dict = dict;
+        _pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * @return the amount of threads of the engine's pool
+     */
+    public int getParallelism() {
+        return _pool.getParallelism();
+    }
+
+    /**
+     * Suggests the best scored word of the dictionary, as the sequential scan does
+     *
+     * @param input - the misspelled word
+     * @return the suggested word, or null for an empty dictionary
+     */
+    public String suggest(String input) {
+        return suggest(input, new Similarity());
+    }
+
+    /**
+     * Suggests a word like suggest(input), counting the words the pool's threads scored
+     * on the caller's kernel
+     *
+     * @param input      - the misspelled word
+     * @param similarity - the caller's scoring kernel
+     * @return the suggested word, or null for an empty dictionary
+     */
+    public String suggest(String input, Similarity similarity) {
+        int capacity = _dict.capacity();
+        int chunk = Math.max(MIN_CHUNK_SLOTS, capacity / (_pool.getParallelism() * CHUNKS_PER_THREAD));
+        LongAdder scored = new LongAdder();
+        long best = _pool.invoke(new ScanTask(input, 0, capacity, chunk, scored));
+        similarity.countScored(scored.sum());
+        int slot = (int) best;
+        return (slot < 0) ? null : _dict.wordAt(slot);
+    }
+
+    /**
+     * Shuts the engine's pool down
+     */
+    public void close() {
+        _pool.shutdown();
+    }
+
+    /**
+     * @return a score and a slot packed into a long
+     */
+    private static long candidate(int score, int slot) {
+        return ((long) score << 32) | (slot & 0xFFFFFFFFL);
+    }
+
+    private static int score(long candidate) {
+        return (int) (candidate >> 32);
+    }
+
+    /**
+     * Finds the best (score, slot) candidate of a range of slots
+     */
+    private class ScanTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final String input;
+        private final int from, to, chunk;
+        private final LongAdder scored; // the words scored by all the tasks of a suggestion
+
+        private ScanTask(String input, int from, int to, int chunk, LongAdder scored) {
+            this.input = input;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.scored = scored;
+        }
+
+        protected Long compute() {
+            if (to - from <= chunk)
+                return scan();
+            int mid = (from + to) >>> 1;
+            ScanTask left = new ScanTask(input, from, mid, chunk, scored);
+            left.fork();
+            long right = new ScanTask(input, mid, to, chunk, scored).compute();
+            long l = left.join();
+            // the left range comes first in the table, so it wins a tie like in the sequential scan
+            return (score(l) >= score(right)) ? l : right;
+        }
+
+        private long scan() {
+            Similarity similarity = new Similarity();
+            int max = -1;
+            int potentialSlot = -1;
+            for (int i = from; i < to; i++) {
+                String word = _dict.wordAt(i);
+                if (word == null)
+                    continue;
+                int currPotential = similarity.score(word, input);
+                if (currPotential > max) {
+                    max = currPotential;
+                    potentialSlot = i;
+                }
+            }
+            scored.add(similarity.getScoredCount());
+            return candidate(max, potentialSlot);
+        }
+    }
+}
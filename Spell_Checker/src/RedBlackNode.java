@@ -3,12 +3,18 @@
  * @author David kipnis and Gal Toubul
  * @version 1.0
  */
+
+import java.util.Arrays;
+
 public class RedBlackNode
 {
     //declarations
     private String _str;
     private String _color;
     private RedBlackNode _leftSon, _rightSon,_parent;
+    private int _count;//how many times the String occurred
+    private long[] _positions;//line and column of each occurrence, packed into a long
+    private int _positionsCount;
     final String RED="RED";
     final String BLACK="BLACK";
 
@@ -54,6 +60,7 @@ public class RedBlackNode
         _rightSon=other.getRightSon();
         _parent=other.getParent();
         _color=other.getColor();
+        copyOccurrences(other);
     }
 
     //getters
@@ -100,6 +107,40 @@ public class RedBlackNode
             return null;
     }
 
+    /**
+     * @return how many times the String of the RB Node occurred
+     */
+    public int getCount()
+    {
+        return _count;
+    }
+
+    /**
+     * @return the amount of recorded positions of the String
+     */
+    public int getPositionsCount()
+    {
+        return _positionsCount;
+    }
+
+    /**
+     * @param i - the index of the position, between 0 and getPositionsCount() - 1
+     * @return the line of the i-th recorded occurrence
+     */
+    public long getLine(int i)
+    {
+        return _positions[i] >>> 32;
+    }
+
+    /**
+     * @param i - the index of the position, between 0 and getPositionsCount() - 1
+     * @return the column of the i-th recorded occurrence
+     */
+    public int getColumn(int i)
+    {
+        return (int) _positions[i];
+    }
+
     /**
      * @return the color of the RB Node
      */
@@ -146,6 +187,40 @@ public class RedBlackNode
         _parent=newParent;
     }
 
+    /**
+     * counts another occurrence of the RB-Node's String, without a position
+     */
+    public void addOccurrence()
+    {
+        _count++;
+    }
+
+    /**
+     * counts another occurrence of the RB-Node's String and records its position
+     * @param line - the line of the occurrence
+     * @param column - the column of the occurrence
+     */
+    public void addOccurrence(long line, int column)
+    {
+        _count++;
+        if (_positions == null)
+            _positions = new long[1];
+        else if (_positionsCount == _positions.length)
+            _positions = Arrays.copyOf(_positions, _positionsCount * 2);
+        _positions[_positionsCount++] = (line << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    /**
+     * sets the RB-Node's occurrences (count and positions) as the given RB Node's
+     * @param other - the RB Node to copy the occurrences from
+     */
+    public void copyOccurrences(RedBlackNode other)
+    {
+        _count=other._count;
+        _positions=other._positions;
+        _positionsCount=other._positionsCount;
+    }
+
     /**
      * sets the given color as the RB-Node's color
      * @param color - the String which will be the RB-Node's color
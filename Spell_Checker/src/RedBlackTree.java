@@ -10,6 +10,9 @@
  * Ronald L. Rivest,
  * Clifford Stein</P>
  */
+
+import java.util.List;
+
 public class RedBlackTree {
     //declarations
     private RedBlackNode _root;//root[T]
@@ -31,6 +34,46 @@ public class RedBlackTree {
         _nil.setColor(BLACK);
     }
 
+    /**
+     * creats a balanced RB-Tree of sorted words in O(n), without any rotation.
+     * the nodes are copied (value and occurrences) into the new tree.
+     * <p>the tree is built by halving the list, so every path is log(n) long up to 1;
+     * the nodes of the deepest level (if it isn't the root) are RED and the rest are BLACK,
+     * which gives every path the same amount of BLACK nodes.</p>
+     *
+     * @param sorted - nodes in ascending order of their strings
+     * @return the new tree
+     */
+    public static RedBlackTree fromSorted(List<RedBlackNode> sorted) {
+        RedBlackTree tree = new RedBlackTree();
+        if (!sorted.isEmpty()) {
+            int redDepth = 31 - Integer.numberOfLeadingZeros(sorted.size()); // floor(log2(n))
+            tree.setRoot(tree.buildBalanced(sorted, 0, sorted.size() - 1, 0, redDepth));
+        }
+        return tree;
+    }
+
+    /**
+     * @return the root of a balanced subtree of sorted[low..high]
+     */
+    private RedBlackNode buildBalanced(List<RedBlackNode> sorted, int low, int high, int depth, int redDepth) {
+        if (low > high)
+            return this._nil;
+        int mid = (low + high) >>> 1;
+        RedBlackNode z = new RedBlackNode(sorted.get(mid).getValue());
+        z.copyOccurrences(sorted.get(mid));
+        z.setColor((depth == redDepth && depth > 0) ? RED : BLACK);
+        RedBlackNode left = buildBalanced(sorted, low, mid - 1, depth + 1, redDepth);
+        RedBlackNode right = buildBalanced(sorted, mid + 1, high, depth + 1, redDepth);
+        z.setLeftSon(left);
+        z.setRightSon(right);
+        if (left != this._nil)
+            left.setParent(z);
+        if (right != this._nil)
+            right.setParent(z);
+        return z;
+    }
+
     //getters
 
     /**
@@ -84,22 +127,48 @@ public class RedBlackTree {
     //methods
 
     /**
-     * inserts new word into the RB-Tree
+     * inserts new word into the RB-Tree.
+     * a word which is already in the tree isn't inserted again, its node counts another occurrence
      *
      * @param T   - the root of the RB-Tree
      * @param str - the new word
      */
     public void insert(RedBlackNode T, String str) {
+        RedBlackNode x = insertOnce(T, str);
+        x.addOccurrence();
+    }
+
+    /**
+     * inserts new word into the RB-Tree, recording the position it occurred at.
+     * a word which is already in the tree isn't inserted again, its node records another occurrence
+     *
+     * @param T      - the root of the RB-Tree
+     * @param str    - the new word
+     * @param line   - the line the word occurred at
+     * @param column - the column the word occurred at
+     */
+    public void insert(RedBlackNode T, String str, long line, int column) {
+        RedBlackNode x = insertOnce(T, str);
+        x.addOccurrence(line, column);
+    }
+
+    /**
+     * @return the node of the word, inserting a new one if the word isn't in the tree
+     */
+    private RedBlackNode insertOnce(RedBlackNode T, String str) {
         RedBlackNode y = this._nil;
         RedBlackNode x = this.getRoot();
-        RedBlackNode z = new RedBlackNode(str);
         while (x != this._nil) {
             y = x;
-            if (str.compareTo(x.getValue()) < 0)//new node is lexicographically smaller than the compared node
+            int cmp = str.compareTo(x.getValue());
+            if (cmp == 0)//the word is already in the tree
+                return x;
+            if (cmp < 0)//new node is lexicographically smaller than the compared node
                 x = x.getLeftSon();
             else//new node is lexicographically bigger than the compared node
                 x = x.getRightSon();
         }
+        RedBlackNode z = new RedBlackNode(str);
         z.setParent(y);
         if (y == this._nil) //T is empty
         {
@@ -114,7 +183,7 @@ public class RedBlackTree {
         z.setLeftSon(this._nil);
         z.setRightSon(this._nil);
         insertColorFixUp(T, z);
-
+        return z;
     }
 
     /**
@@ -217,8 +286,10 @@ public class RedBlackTree {
             else
                 y.getParent().setRightSon(x);
         }
-        if (y != z)
+        if (y != z) {
             z.setValue(y.getValue());
+            z.copyOccurrences(y);
+        }
         if (y.getColor().equals(BLACK))//if we deleted a BLACK node->we have to do a color fix
             deleteColorFixUp(T, x);
 //        }
@@ -0,0 +1,222 @@
+/**
+ * Reloading Dictionary - a dictionary text file which is watched (by a java.nio WatchService)
+ * and reloaded whenever it changes, without restarting.
+ * A reload builds a whole new Dictionary on the watching thread and then swaps
+ * its DictionarySnapshot in with a single volatile write (copy on write),
+ * so lookups and suggestions never wait for a reload and never see half of one.
+ * <p>A check which must see a single version of the words from its start to its end
+ * takes current().newChecker() when it starts, it keeps the old snapshot
+ * even if a reload swaps a new one in meanwhile.
+ * contains() and suggest() of this object always ask the latest snapshot.</p>
+ * <p>The file should be replaced by writing a new file beside it and renaming it over
+ * the old one (an atomic rename), so a reload never reads a file which is still being written.
+ * As a guard against a file caught half written or truncated anyway, a reload which finds
+ * no words, or less than a minimal share of the current words (see setMinReloadRatio()),
+ * is rejected and the current snapshot is kept.</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class ReloadingDictionary implements Lexicon, SuggestionEngine, AutoCloseable {
+
+    private static final long SETTLE_MILLIS = 200; // waits for an editor to finish writing the file
+    private static final double DEFAULT_MIN_RELOAD_RATIO = 0.5;
+
+    private final Path _path;
+    private final WatchService _watcher;
+    private final Thread _thread;
+    private volatile DictionarySnapshot _current;
+    private volatile Consumer<DictionarySnapshot> _listener;
+    private volatile long _reloads;
+    private volatile double _minReloadRatio = DEFAULT_MIN_RELOAD_RATIO;
+
+    /**
+     * Loads a dictionary text file (UTF-8, a word per line) and starts watching it
+     *
+     * @param path - the system path to the dictionary file
+     * @throws IOException
+     */
+    public ReloadingDictionary(String path) throws IOException {
+        _path = Paths.get(path).toAbsolutePath();
+        _current = load(0);
+        _watcher = FileSystems.getDefault().newWatchService();
+        _path.getParent().register(_watcher,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        _thread = new Thread(this::watch, "dictionary-reloader");
+        _thread.setDaemon(true);
+        _thread.start();
+    }
+
+    /**
+     * @return the latest snapshot of the dictionary
+     */
+    public DictionarySnapshot current() {
+        return _current;
+    }
+
+    /**
+     * @return the version of the latest snapshot, which changes on every reload swapped in
+     */
+    public long getVersion() {
+        return _current.getVersion();
+    }
+
+    /**
+     * Check if the latest snapshot contains a certain word
+     *
+     * @param key - input word
+     * @return true when the dictionary contains the word, false otherwise
+     */
+    public boolean contains(CharSequence key) {
+        return _current.contains(key);
+    }
+
+    /**
+     * Suggests a word by the latest snapshot
+     *
+     * @param input - the misspelled word
+     * @return the suggested word, or null when the dictionary is empty
+     */
+    public String suggest(String input) {
+        return _current.suggest(input);
+    }
+
+    /**
+     * Suggests a word by the latest snapshot, ranked by the caller's kernel
+     *
+     * @param input      - the misspelled word
+     * @param similarity - the caller's scoring kernel, used by the calling thread only
+     * @return the suggested word, or null when the dictionary is empty
+     */
+    public String suggest(String input, Similarity similarity) {
+        return _current.suggest(input, similarity);
+    }
+
+    /**
+     * Sets a listener which gets every new snapshot right after it's swapped in, on the reloading thread
+     * (the watching thread, or a caller of reload()) and outside of any lock
+     *
+     * @param listener - the listener, or null for none
+     */
+    public void setReloadListener(Consumer<DictionarySnapshot> listener) {
+        _listener = listener;
+    }
+
+    /**
+     * Sets the smallest share of the current words a reload must find to be swapped in
+     * (a reload which finds no words is always rejected)
+     *
+     * @param minReloadRatio - between 0 and 1, 0.5 by default, 0 to accept any non empty file
+     */
+    public void setMinReloadRatio(double minReloadRatio) {
+        if (!(minReloadRatio >= 0 && minReloadRatio <= 1))
+            throw new IllegalArgumentException("minReloadRatio must be between 0 and 1: " + minReloadRatio);
+        _minReloadRatio = minReloadRatio;
+    }
+
+    /**
+     * @return the amount of times the dictionary was reloaded
+     */
+    public long getReloads() {
+        return _reloads;
+    }
+
+    /**
+     * Reloads the dictionary file now, on the calling thread.
+     * When it can't be read, or it has too few words (see setMinReloadRatio()),
+     * the current snapshot is kept.
+     *
+     * @throws IOException when the file can't be read or was rejected
+     */
+    public void reload() throws IOException {
+        DictionarySnapshot snapshot = swap();
+        Consumer<DictionarySnapshot> listener = _listener;
+        if (listener != null)
+            listener.accept(snapshot); // a slow listener doesn't hold up the next reload
+    }
+
+    /**
+     * Stops watching the file, the current snapshot stays usable
+     *
+     * @throws IOException
+     */
+    public void close() throws IOException {
+        _watcher.close();
+    }
+
+    /**
+     * Loads the file and swaps its snapshot in, one reload at a time
+     *
+     * @return the new snapshot
+     */
+    private synchronized DictionarySnapshot swap() throws IOException {
+        DictionarySnapshot snapshot = load(_current.size());
+        if (snapshot.size() == 0 || snapshot.size() < _current.size() * _minReloadRatio)
+            throw new IOException("the dictionary file has " + snapshot.size() + " words instead of "
+                    + _current.size() + ", it may be half written (replace it by an atomic rename)");
+        _current = snapshot;
+        _reloads++;
+        return snapshot;
+    }
+
+    /**
+     * Builds a snapshot of the file, with a table sized for the expected amount of words
+     */
+    private DictionarySnapshot load(int expectedWords) throws FileNotFoundException {
+        Dictionary dict = new Dictionary(expectedWords, 0.5);
+        dict.build(_path.toString());
+        return dict.snapshot();
+    }
+
+    /**
+     * The watching thread's loop - reloads once the file has changed and then settled:
+     * no event of the file (other files of the directory don't count) for SETTLE_MILLIS
+     */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = _watcher.take();
+                long settled = 0; // the time the file is settled at, 0 while it hasn't changed
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW // the file's events may be lost
+                                || _path.getFileName().equals(event.context()))
+                            settled = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SETTLE_MILLIS);
+                    }
+                    key.reset();
+                    long wait = settled - System.nanoTime();
+                    if (settled == 0 || wait <= 0)
+                        break;
+                    key = _watcher.poll(wait, TimeUnit.NANOSECONDS);
+                }
+                if (settled != 0)
+                    reloadQuietly();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // closed
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("dictionary reload failed, keeping the current one: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,378 @@
+/**
+ * Sharded Dictionary - partitions the words over several independent Dictionary shards,
+ * each with its own hash table, so a shard can hold millions of words and
+ * the shards can be built at once.
+ * A word is routed to its shard by a partitioner - by default the word's Dictionary hash,
+ * or any function of the word (a language or a domain) returning a shard index.
+ * A whole file may also be assigned to a shard explicitly (build(shard, path), reload(shard, path)),
+ * whatever the partitioner says of its words.
+ * contains() asks the shard the partitioner gives the word, and when the word isn't there,
+ * every shard which was loaded other than by the partitioner - explicitly, or through getShard().
+ * A suggestion is scattered to all the shards on the dictionary's ForkJoinPool and
+ * their best words are gathered and ranked together.
+ * <p>Every shard answers one suggestion at a time, so suggestions may be asked by
+ * several threads. Adding or reloading words is not thread safe.</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+public class ShardedDictionary implements Lexicon, SuggestionEngine, AutoCloseable {
+
+    private final Dictionary[] _shards;
+    private final SpellCheck[] _checkers; // ranks a shard's suggestions, guarded by itself
+    private final long[] _routedVersions; // a shard's version when it last had only partitioned words
+    private final ToIntFunction<CharSequence> _partitioner;
+    private final ForkJoinPool _pool;
+
+    /**
+     * Creates empty shards, partitioned by the words' hash
+     *
+     * @param shards - the amount of shards
+     */
+    public ShardedDictionary(int shards) {
+        this(shards, null);
+    }
+
+    /**
+     * Creates empty shards, partitioned by a given partitioner
+     *
+     * @param shards      - the amount of shards
+     * @param partitioner - gives a word's shard index, between 0 and shards - 1 (in any case of the word),
+     *                    null to partition by the words' hash
+     */
+    public ShardedDictionary(int shards, ToIntFunction<CharSequence> partitioner) {
+        if (shards <= 0)
+            throw new IllegalArgumentException("shards must be positive: " + shards);
+        _shards = new Dictionary[shards];
+        _checkers = new SpellCheck[shards];
+        _routedVersions = new long[shards];
+        for (int i = 0; i < shards; i++) {
+            _shards[i] = new Dictionary();
+            _checkers[i] = new SpellCheck(_shards[i]);
+        }
+        _partitioner = (partitioner != null) ? partitioner : this::hashShard;
+        _pool = new ForkJoinPool(Math.min(shards, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @return the amount of shards
+     */
+    public int shardsCount() {
+        return _shards.length;
+    }
+
+    /**
+     * @param shard - a shard index
+     * @return the shard's dictionary - words added to it directly are found by contains()
+     * like words of a shard loaded by build(shard, path)
+     */
+    public Dictionary getShard(int shard) {
+        return _shards[shard];
+    }
+
+    /**
+     * @param word - a word
+     * @return the index of the shard the word belongs to
+     */
+    public int shardOf(CharSequence word) {
+        return _partitioner.applyAsInt(word);
+    }
+
+    /**
+     * @return the amount of words in all the shards
+     */
+    public int size() {
+        int size = 0;
+        for (Dictionary shard : _shards)
+            size += shard.size();
+        return size;
+    }
+
+    /**
+     * @return the sum of the shards' versions, which changes whenever words are added to any shard
+     */
+    public long getVersion() {
+        long version = 0;
+        for (Dictionary shard : _shards)
+            version += shard.getVersion();
+        return version;
+    }
+
+    /**
+     * Loads dictionary text files (UTF-8, a word per line) - the files are read
+     * and partitioned at once, one task per file, and then every shard bulk loads
+     * its words at once, one task per shard.
+     *
+     * @param paths - the system paths to the files
+     * @throws FileNotFoundException
+     */
+    public void build(String... paths) throws FileNotFoundException {
+        List<Callable<List<List<String>>>> reads = new ArrayList<>();
+        for (String path : paths)
+            reads.add(() -> partition(Dictionary.readWords(path)));
+        List<List<List<String>>> files;
+        try {
+            files = gather(reads);
+        } catch (UncheckedIOException e) {
+            if (e.getCause() instanceof FileNotFoundException)
+                throw (FileNotFoundException) e.getCause();
+            throw e;
+        }
+        List<Callable<Void>> loads = new ArrayList<>();
+        for (int i = 0; i < _shards.length; i++) {
+            int shard = i;
+            loads.add(() -> {
+                for (List<List<String>> file : files)
+                    addRouted(shard, file.get(shard));
+                return null;
+            });
+        }
+        gather(loads);
+    }
+
+    /**
+     * Loads a dictionary text file (UTF-8, a word per line) into a given shard,
+     * whichever shard the partitioner gives its words
+     *
+     * @param shard - a shard index
+     * @param path  - the system path to the file
+     * @throws FileNotFoundException
+     */
+    public void build(int shard, String path) throws FileNotFoundException {
+        checkShard(shard);
+        _shards[shard].build(path);
+    }
+
+    /**
+     * Replaces the words of a given shard by a dictionary text file's words
+     * (UTF-8, a word per line), whichever shard the partitioner gives them.
+     * The new words are loaded into a new Dictionary, which then takes the shard's place.
+     *
+     * @param shard - a shard index
+     * @param path  - the system path to the file
+     * @throws FileNotFoundException
+     */
+    public void reload(int shard, String path) throws FileNotFoundException {
+        checkShard(shard);
+        Dictionary dict = new Dictionary(_shards[shard].size(), 0.5);
+        dict.build(path);
+        _shards[shard] = dict;
+        _checkers[shard] = new SpellCheck(dict);
+        _routedVersions[shard] = -1; // no version of the new dictionary
+    }
+
+    /**
+     * Adding a word to its shard
+     *
+     * @param key - input word
+     */
+    public void add(String key) {
+        int shard = shardOf(key);
+        boolean routed = isRouted(shard);
+        _shards[shard].add(key);
+        if (routed)
+            _routedVersions[shard] = _shards[shard].getVersion();
+    }
+
+    /**
+     * Adding many words at once, every shard bulk loads its words on its own task
+     *
+     * @param keys - input words
+     */
+    public void addAll(Collection<String> keys) {
+        List<List<String>> partitioned = partition(keys);
+        List<Callable<Void>> loads = new ArrayList<>();
+        for (int i = 0; i < _shards.length; i++) {
+            int shard = i;
+            loads.add(() -> {
+                addRouted(shard, partitioned.get(shard));
+                return null;
+            });
+        }
+        gather(loads);
+    }
+
+    /**
+     * Check if the word's shard contains it, or else any shard loaded other than by the partitioner
+     *
+     * @param key - input word
+     * @return true when the dictionary contains the word, false otherwise
+     */
+    public boolean contains(CharSequence key) {
+        int routed = shardOf(key);
+        if (_shards[routed].contains(key))
+            return true;
+        for (int shard = 0; shard < _shards.length; shard++) {
+            if (shard != routed && !isRouted(shard) && _shards[shard].contains(key))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Suggests the best word of all the shards
+     *
+     * @param input - the misspelled word
+     * @return the suggested word, or null when the dictionary is empty
+     */
+    public String suggest(String input) {
+        return suggest(input, new Similarity());
+    }
+
+    /**
+     * Suggests the best word of all the shards, counting the words the shards scored
+     * on the caller's kernel
+     *
+     * @param input      - the misspelled word
+     * @param similarity - the caller's scoring kernel, used by the calling thread only
+     * @return the suggested word, or null when the dictionary is empty
+     */
+    public String suggest(String input, Similarity similarity) {
+        List<String> best = getSuggestions(input, 1, similarity);
+        return best.isEmpty() ? null : best.get(0);
+    }
+
+    /**
+     * The k most potential words of all the shards, best first - every shard finds its own
+     * k best at once (SpellCheck.getSuggestions()), and they are merged by potential,
+     * equal potentials in shard order.
+     *
+     * @param input - the misspelled word
+     * @param k     - the maximal amount of suggestions
+     * @return up to k suggestions
+     */
+    public List<String> getSuggestions(String input, int k) {
+        return getSuggestions(input, k, new Similarity());
+    }
+
+    /**
+     * The k most potential words of all the shards, the words the shards scored counted on a kernel
+     * which merges them too
+     */
+    private List<String> getSuggestions(String input, int k, Similarity similarity) {
+        if (k <= 0)
+            throw new IllegalArgumentException("k must be positive: " + k);
+        LongAdder scored = new LongAdder();
+        List<Callable<List<String>>> scatter = new ArrayList<>();
+        for (SpellCheck checker : _checkers) {
+            scatter.add(() -> {
+                synchronized (checker) {
+                    long before = checker.getScoredCount();
+                    List<String> best = checker.getSuggestions(input, k);
+                    scored.add(checker.getScoredCount() - before);
+                    return best;
+                }
+            });
+        }
+        List<List<String>> gathered = gather(scatter);
+        similarity.countScored(scored.sum());
+        ArrayList<long[]> candidates = new ArrayList<>(); // {potential, shard, rank}
+        for (int shard = 0; shard < gathered.size(); shard++) {
+            List<String> words = gathered.get(shard);
+            for (int rank = 0; rank < words.size(); rank++)
+                candidates.add(new long[]{similarity.score(words.get(rank), input), shard, rank});
+        }
+        candidates.sort((a, b) -> (a[0] != b[0]) ? Long.compare(b[0], a[0])
+                : (a[1] != b[1]) ? Long.compare(a[1], b[1]) : Long.compare(a[2], b[2]));
+        ArrayList<String> merged = new ArrayList<>(Math.min(k, candidates.size()));
+        for (int i = 0; i < k && i < candidates.size(); i++) {
+            long[] candidate = candidates.get(i);
+            merged.add(gathered.get((int) candidate[1]).get((int) candidate[2]));
+        }
+        return merged;
+    }
+
+    /**
+     * Shuts the dictionary's pool down, the shards stay usable for lookups
+     */
+    public void close() {
+        _pool.shutdown();
+    }
+
+    /**
+     * Adds partitioned words to their shard, which stays routed if it was
+     */
+    private void addRouted(int shard, List<String> words) {
+        boolean routed = isRouted(shard);
+        _shards[shard].addAll(words);
+        if (routed)
+            _routedVersions[shard] = _shards[shard].getVersion();
+    }
+
+    /**
+     * @return true when all the words of a shard were routed to it by the partitioner -
+     * a shard which was loaded explicitly, or changed through getShard(), has a new version
+     */
+    private boolean isRouted(int shard) {
+        return _shards[shard].getVersion() == _routedVersions[shard];
+    }
+
+    private void checkShard(int shard) {
+        if (shard < 0 || shard >= _shards.length)
+            throw new IllegalArgumentException("shard must be between 0 and " + (_shards.length - 1) + ": " + shard);
+    }
+
+    /**
+     * @return the words split by their shards
+     */
+    private List<List<String>> partition(Collection<String> words) {
+        List<List<String>> partitioned = new ArrayList<>(_shards.length);
+        for (int i = 0; i < _shards.length; i++)
+            partitioned.add(new ArrayList<>(words.size() / _shards.length + 1));
+        for (String word : words)
+            partitioned.get(shardOf(word)).add(word);
+        return partitioned;
+    }
+
+    /**
+     * The default partitioner - spreads the word's hash (which ignores case) over the shards.
+     * The hash is remixed (the MurmurHash3 finalizer) rather than Fibonacci hashed like the
+     * shards' tables, otherwise all the words of a shard would crowd into a part of its table.
+     */
+    private int hashShard(CharSequence word) {
+        int h = Dictionary.hashLowerCase(word);
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return Math.floorMod(h, _shards.length);
+    }
+
+    /**
+     * Runs tasks on the pool and waits for all their results, in the tasks' order
+     * (a task's IOException is thrown as an UncheckedIOException)
+     */
+    private <T> List<T> gather(List<? extends Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : _pool.invokeAll(tasks))
+                results.add(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof IOException)
+                throw new UncheckedIOException((IOException) cause);
+            throw new IllegalStateException(cause);
+        }
+        return results;
+    }
+}
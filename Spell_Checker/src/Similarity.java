@@ -0,0 +1,271 @@
+/**
+ * Similarity - the scoring kernel used to rank suggestion candidates.
+ * The longest common subsequence of two words is computed with a single
+ * rolling DP row at O(n*m) time, and the row is kept between calls,
+ * so once it has grown to the longest word seen a comparison allocates nothing.
+ * <p>an instance is not thread safe - every thread should use its own.</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+public class Similarity {
+
+    private static final int INITIAL_ROW_SIZE = 32;
+    private static final int CHAR_BUCKETS = 128; // other characters share the buckets, which only loosens the bound
+    private int[] _row;
+    private int[] _previous;
+    private final int[] _counts = new int[CHAR_BUCKETS]; // the characters of the prepared input
+    private long _scored; // the amount of score() calls, for the metrics
+
+    /**
+     * Initialize the kernel with a small reusable DP row
+     */
+    public Similarity() {
+        _row = new int[INITIAL_ROW_SIZE];
+        _previous = new int[INITIAL_ROW_SIZE];
+    }
+
+    /**
+     * Calculate the amount of similar characters in the same order
+     * (the longest common subsequence) of two words.
+     * Returns exactly what the recursive SpellCheck.potential(str1, str2, 0) returned.
+     *
+     * @param str1 - first word to compare
+     * @param str2 - second word to compare
+     * @return the length of the longest common subsequence
+     */
+    public int lcs(CharSequence str1, CharSequence str2) {
+        int n = str1.length();
+        int m = str2.length();
+        if (n == 0 || m == 0) {
+            return 0;
+        }
+        if (_row.length <= m) {
+            _row = new int[Math.max(m + 1, _row.length * 2)];
+        }
+        int[] row = _row;
+        for (int j = 0; j <= m; j++) {
+            row[j] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            char c = str1.charAt(i);
+            int diagonal = 0; // the value of row[j - 1] before this pass
+            for (int j = 1; j <= m; j++) {
+                int up = row[j];
+                if (c == str2.charAt(j - 1)) {
+                    row[j] = diagonal + 1;
+                } else if (row[j - 1] > up) {
+                    row[j] = row[j - 1];
+                }
+                diagonal = up;
+            }
+        }
+        return row[m];
+    }
+
+    /**
+     * The potential of a dictionary word to be the intended input word,
+     * as ranked by SpellCheck.getSuggestion() -
+     * the amount of similar characters in order, plus 2 for the same length
+     * or 1 for a length difference of 1 (only when there is any similar character).
+     *
+     * @param word  - the dictionary word
+     * @param input - the (misspelled) input word
+     * @return the potential score, higher is better
+     */
+    public int score(CharSequence word, CharSequence input) {
+        _scored++;
+        int score = lcs(word, input);
+        if (score > 0) {
+            int lengthDiff = Math.abs(word.length() - input.length());
+            score += (lengthDiff < 1) ? 1 : 0; // in case of no difference between word's size
+            score += (lengthDiff < 2) ? 1 : 0; // in case of difference by 1
+        }
+        return score;
+    }
+
+    /**
+     * An upper bound of score() for any word of a given length -
+     * the LCS can't be longer than the shorter word
+     *
+     * @param wordLength  - the length of the dictionary word
+     * @param inputLength - the length of the input word
+     * @return the highest score a word of this length may get
+     */
+    public static int maxScore(int wordLength, int inputLength) {
+        int lcs = Math.min(wordLength, inputLength);
+        if (lcs == 0)
+            return 0;
+        int lengthDiff = Math.abs(wordLength - inputLength);
+        return lcs + ((lengthDiff < 1) ? 1 : 0) + ((lengthDiff < 2) ? 1 : 0);
+    }
+
+    /**
+     * @return the amount of words this kernel has scored so far
+     */
+    public long getScoredCount() {
+        return _scored;
+    }
+
+    /**
+     * Counts words scored for this kernel's caller by other kernels, for example on other threads
+     *
+     * @param scored - the amount of words they scored
+     */
+    public void countScored(long scored) {
+        _scored += scored;
+    }
+
+    /**
+     * The k most potential words for an input, by a table's length index - the lengths
+     * closest to the input's first, keeping the k best in a bounded heap.
+     * A length whose highest possible potential (maxScore()) can't beat the k-th best
+     * is skipped, and so is a word whose common characters can't,
+     * so only the words which may enter the top k are scored.
+     * Equal potentials keep the table's order, so the best word is always
+     * the first best one of scoring the whole table in slot order.
+     *
+     * @param input         - the input word
+     * @param k             - the maximal amount of words, at least 1
+     * @param keys          - the table's words by slot (null for an empty slot)
+     * @param slotsByLength - the slots of the table's words of each length, in ascending order
+     * @return the slots of up to k words, best first
+     */
+    public int[] rank(String input, int k, String[] keys, int[][] slotsByLength) {
+        // a candidate is its potential in the high half and its inverted slot in the low half,
+        // so a larger key is a better candidate and equal potentials keep the table order
+        PriorityQueue<Long> best = new PriorityQueue<>(k + 1);
+        int m = input.length();
+        int maxLength = slotsByLength.length - 1;
+        prepare(input);
+        // the bounds never grow farther away on either side (they stay m for longer words),
+        // so a side is done once it runs out of lengths or the bound closes one of its lengths
+        boolean shorterDone = false;
+        boolean longerDone = false;
+        for (int d = Math.max(0, m - maxLength); !(shorterDone && longerDone); d++) {
+            int shorter = m - d;
+            int longer = m + d;
+            if (!shorterDone)
+                shorterDone = shorter < 0 || !rankLength(input, slotsByLength[shorter], shorter, keys, k, best);
+            if (!longerDone && d > 0)
+                longerDone = longer > maxLength || !rankLength(input, slotsByLength[longer], longer, keys, k, best);
+        }
+        int[] slots = new int[best.size()];
+        for (int i = slots.length - 1; i >= 0; i--)
+            slots[i] = Integer.MAX_VALUE - (int) (long) best.poll();
+        return slots;
+    }
+
+    /**
+     * Ranks the words of a single length into the heap of the k best
+     * @return false when no word of this length could enter the heap
+     */
+    private boolean rankLength(String input, int[] slots, int length, String[] keys, int k, PriorityQueue<Long> best) {
+        int bound = maxScore(length, input.length());
+        if (best.size() == k && bound < (int) (best.peek() >> 32))
+            return false;
+        int lengthDiff = Math.abs(length - input.length());
+        int bonus = ((lengthDiff < 1) ? 1 : 0) + ((lengthDiff < 2) ? 1 : 0);
+        for (int slot : slots) {
+            long key = candidate(bound, slot);
+            if (best.size() == k && key < best.peek())
+                break; // the slots ascend, so no later word of this length can tie its way in either
+            String word = keys[slot];
+            int common = commonCharacters(word);
+            if (best.size() == k && candidate((common > 0) ? common + bonus : 0, slot) < best.peek())
+                continue;
+            key = candidate(score(word, input), slot);
+            if (best.size() < k) {
+                best.add(key);
+            } else if (key > best.peek()) {
+                best.poll();
+                best.add(key);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the heap key of a word by its potential and slot
+     */
+    private static long candidate(int potential, int slot) {
+        return ((long) potential << 32) | (Integer.MAX_VALUE - slot);
+    }
+
+    /**
+     * Counts the characters of an input word, for commonCharacters()
+     *
+     * @param input - the input word
+     */
+    public void prepare(CharSequence input) {
+        Arrays.fill(_counts, 0);
+        for (int i = 0; i < input.length(); i++) {
+            _counts[input.charAt(i) & (CHAR_BUCKETS - 1)]++;
+        }
+    }
+
+    /**
+     * The amount of characters a word has in common with the prepared input, in any order -
+     * an O(n) upper bound of their LCS
+     *
+     * @param word - the dictionary word
+     * @return the amount of common characters
+     */
+    public int commonCharacters(CharSequence word) {
+        int common = 0;
+        int n = word.length();
+        for (int i = 0; i < n; i++) {
+            int c = word.charAt(i) & (CHAR_BUCKETS - 1);
+            if (_counts[c]-- > 0)
+                common++;
+        }
+        for (int i = 0; i < n; i++) { // restores the counts
+            _counts[word.charAt(i) & (CHAR_BUCKETS - 1)]++;
+        }
+        return common;
+    }
+
+    /**
+     * Calculate the edit (Levenshtein) distance of two words -
+     * the minimal amount of inserted, deleted or replaced characters
+     * needed to turn one word into the other.
+     *
+     * @param str1 - first word to compare
+     * @param str2 - second word to compare
+     * @return the edit distance between the words
+     */
+    public int distance(CharSequence str1, CharSequence str2) {
+        int n = str1.length();
+        int m = str2.length();
+        if (n == 0 || m == 0) {
+            return n + m;
+        }
+        if (_row.length <= m) {
+            _row = new int[Math.max(m + 1, _row.length * 2)];
+        }
+        if (_previous.length <= m) {
+            _previous = new int[_row.length];
+        }
+        int[] previous = _previous;
+        int[] current = _row;
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            char c = str1.charAt(i - 1);
+            current[0] = i;
+            for (int j = 1; j <= m; j++) {
+                int cost = (c == str2.charAt(j - 1)) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+}
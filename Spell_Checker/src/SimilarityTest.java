@@ -0,0 +1,116 @@
+/**
+ * Similarity Test - checks that the rolling row kernel (Similarity.lcs() and score())
+ * gives exactly what the original recursive potential() gave, for random pairs of words,
+ * and that ranking random word lists by it picks the same suggestion in the same order.
+ * The recursive search is exponential, so the words are short and of a small alphabet
+ * (which also makes long common subsequences and equal potentials common).
+ * Exits with an error on the first mismatch.
+ * <p>Run: java SimilarityTest</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SimilarityTest {
+
+    private static final int PAIRS = 20000;
+    private static final int RANKINGS = 500;
+    private static final int RANKED_WORDS = 40;
+    private static final int MAX_LENGTH = 9;
+    private static final String ALPHABET = "abcde";
+
+    public static void main(String[] args) {
+        Random random = new Random(2024);
+        Similarity similarity = new Similarity();
+        SpellCheck checker = new SpellCheck(new Dictionary());
+        for (int i = 0; i < PAIRS; i++) {
+            String word = word(random);
+            String input = word(random);
+            int expected = potential(word, input, 0);
+            if (similarity.lcs(word, input) != expected)
+                fail(word, input, "lcs() gave " + similarity.lcs(word, input) + ", potential() gave " + expected);
+            if (similarity.score(word, input) != score(word, input))
+                fail(word, input, "score() gave " + similarity.score(word, input) + ", expected " + score(word, input));
+            int max = random.nextInt(3);
+            if (checker.potential(word, input, max) != potential(word, input, max))
+                fail(word, input, "SpellCheck.potential() gave " + checker.potential(word, input, max)
+                        + ", expected " + potential(word, input, max));
+        }
+        for (int i = 0; i < RANKINGS; i++) {
+            List<String> words = new ArrayList<>();
+            for (int j = 0; j < RANKED_WORDS; j++)
+                words.add(word(random));
+            String input = word(random);
+            List<String> ranked = rank(words, input, similarity);
+            List<String> expected = rank(words, input, null);
+            if (!ranked.equals(expected))
+                fail(words.toString(), input, "the ranking was " + ranked + ", expected " + expected);
+        }
+        System.out.println("SimilarityTest passed: " + PAIRS + " pairs, " + RANKINGS + " rankings");
+    }
+
+    /**
+     * @return a random word of 0 to MAX_LENGTH characters of the alphabet
+     */
+    private static String word(Random random) {
+        char[] chars = new char[random.nextInt(MAX_LENGTH + 1)];
+        for (int i = 0; i < chars.length; i++)
+            chars[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        return new String(chars);
+    }
+
+    /**
+     * Ranks the words by potential, best first and equal potentials in list order -
+     * by the kernel, or by the original recursive potential() when similarity is null
+     */
+    private static List<String> rank(List<String> words, String input, Similarity similarity) {
+        List<int[]> scored = new ArrayList<>(); // {potential, index}
+        for (int i = 0; i < words.size(); i++) {
+            int potential = (similarity != null) ? similarity.score(words.get(i), input) : score(words.get(i), input);
+            scored.add(new int[]{potential, i});
+        }
+        scored.sort((a, b) -> (a[0] != b[0]) ? Integer.compare(b[0], a[0]) : Integer.compare(a[1], b[1]));
+        List<String> ranked = new ArrayList<>();
+        for (int[] candidate : scored)
+            ranked.add(words.get(candidate[1]));
+        return ranked;
+    }
+
+    /**
+     * The original scoring of getSuggestion(), by the recursive potential()
+     */
+    private static int score(String word, String input) {
+        int currPotential = potential(word, input, 0);
+        int lengthDiff = Math.abs(word.length() - input.length());
+        if (currPotential > 0) {
+            currPotential += (lengthDiff < 1) ? 1 : 0;
+            currPotential += (lengthDiff < 2) ? 1 : 0;
+        }
+        return currPotential;
+    }
+
+    /**
+     * The original recursive potential(), kept here as the reference
+     */
+    private static int potential(String str1, String str2, int max) {
+        if (str1.equals("") || str2.equals("")) {
+            return max;
+        }
+        int option1 = potential(str1.substring(1), str2, max);
+        int option2 = potential(str1, str2.substring(1), max);
+        int option3 = 0;
+        if (str1.charAt(0) == str2.charAt(0)) {
+            option3 = potential(str1.substring(1), str2.substring(1), max + 1);
+        }
+        return Math.max(option1, Math.max(option2, option3));
+    }
+
+    private static void fail(String word, String input, String message) {
+        System.err.println("SimilarityTest failed for \"" + word + "\" and \"" + input + "\": " + message);
+        System.exit(1);
+    }
+}
@@ -2,21 +2,40 @@
  * Spell Checker - an object which can handle any text file,
  * and check his spelling according to a given dictionary.
  * afterwards suggests correct word to use instead of the wrong spelled ones.
+ * <p>A checker is not thread safe - to check on several threads, share one
+ * DictionarySnapshot and take a checker per thread by its newChecker().</p>
  *
  * @author Gal Toubul and David kipnis
  * @version 1.0
  */
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 
 public class SpellCheck {
 
     private Dictionary _dict;
+    private Lexicon _lexicon;
     final static String DICTIONARY_PATH = new File("").getAbsolutePath() + "\\src\\dictionary.txt"; // "C:\\Users\\user1\\mmn 15\\src\\dictionary.txt";
     private RedBlackTree _RBTree;
+    private Similarity _similarity;
+    private SuggestionEngine _engine;
+    private SuggestionCache _cache;
+    private boolean _normalizeWords;
+    private SpellCheckMetrics _metrics; // null when not measured
 
     /**
      * Initialize the spell checker - creates the dictionary
@@ -29,7 +48,108 @@ public class SpellCheck {
         _dict = new Dictionary();
         //step 1.a - reading dictionary file and inserting its words to a hash table
         _dict.build(DICTIONARY_PATH);
+        _lexicon = _dict;
         _RBTree = new RedBlackTree();
+        _similarity = new Similarity();
+    }
+
+    /**
+     * Initialize the spell checker with an already built dictionary,
+     * so several checkers (or benchmarks) can share a single dictionary load.
+     *
+     * @param dict - the dictionary to check the spelling by
+     */
+    public SpellCheck(Dictionary dict) {
+        _dict = dict;
+        _lexicon = dict;
+        _RBTree = new RedBlackTree();
+        _similarity = new Similarity();
+    }
+
+    /**
+     * Initialize the spell checker without a Dictionary, for example over a
+     * MappedDictionary opened from a compiled file, which is both arguments at once.
+     * Every word is looked up in the lexicon and every suggestion comes from the engine.
+     *
+     * @param lexicon - the lexicon to look the words up in
+     * @param engine  - the suggestion engine
+     */
+    public SpellCheck(Lexicon lexicon, SuggestionEngine engine) {
+        _lexicon = lexicon;
+        _engine = engine;
+        _RBTree = new RedBlackTree();
+        _similarity = new Similarity();
+    }
+
+    /**
+     * Sets the engine getSuggestion() uses.
+     * null switches back to scanning the whole dictionary.
+     *
+     * @param engine - the suggestion engine, for example a BKTree built from this checker's dictionary
+     */
+    public void setSuggestionEngine(SuggestionEngine engine) {
+        _engine = engine;
+        if (_cache != null)
+            _cache.invalidate();
+    }
+
+    /**
+     * Puts a cache in front of getSuggestion(), it is invalidated whenever
+     * words are added to the dictionary. null removes the cache.
+     * A cache may be shared by checkers of the same dictionary and engine.
+     *
+     * @param cache - the suggestion cache
+     */
+    public void setSuggestionCache(SuggestionCache cache) {
+        _cache = cache;
+    }
+
+    /**
+     * Sets the lexicon words are looked up in, for example a DawgDictionary
+     * built from this checker's dictionary. null switches back to the dictionary itself.
+     *
+     * @param lexicon - the lexicon to look the words up in
+     */
+    public void setLexicon(Lexicon lexicon) {
+        _lexicon = (lexicon != null || _dict == null) ? lexicon : _dict;
+    }
+
+    /**
+     * Sets whether the text's words are normalized before they are checked -
+     * the punctuation around them is stripped and they are lower cased.
+     * Off by default, checking the words exactly as they are separated by whitespaces.
+     *
+     * @param normalizeWords - true to strip punctuation and lower case the words
+     */
+    public void setNormalizeWords(boolean normalizeWords) {
+        _normalizeWords = normalizeWords;
+    }
+
+    /**
+     * @return whether the text's words are normalized before they are checked
+     */
+    public boolean isNormalizeWords() {
+        return _normalizeWords;
+    }
+
+    /**
+     * Reports the phases of run(), the tokenizing throughput, the lookup and suggestion
+     * latencies and the dictionary's probe lengths to a metrics sink.
+     * null (the default) stops measuring, leaving only a null check on each path.
+     *
+     * @param metrics - the metrics sink, for example HistogramMetrics or JfrMetrics
+     */
+    public void setMetrics(SpellCheckMetrics metrics) {
+        _metrics = metrics;
+        if (_dict != null)
+            _dict.setMetrics(metrics);
+    }
+
+    /**
+     * @return the dictionary this checker checks the spelling by, null when it has only a lexicon
+     */
+    public Dictionary getDictionary() {
+        return _dict;
     }
 
     /**
@@ -41,25 +161,151 @@ public class SpellCheck {
      */
     public void run(String textPath) throws FileNotFoundException {
         _RBTree = new RedBlackTree();
-        Scanner sc = new Scanner(new File(textPath));
-        sc.useDelimiter("(\\s+|\\n+)");//separating words at the text file using ENTER or whitespace as buffers
-        while (sc.hasNext()) {
-            String curr_scanned = sc.next();
-            if (!curr_scanned.equals(""))
-                //step 1.b - inserting the words from the file to RB-Tree
-                _RBTree.insert(_RBTree.getRoot(), curr_scanned);
+        long start = (_metrics == null) ? 0 : System.nanoTime();
+        try (Reader text = new InputStreamReader(new FileInputStream(textPath), StandardCharsets.UTF_8)) {
+            Tokenizer words = new Tokenizer(text, _normalizeWords, _normalizeWords);
+            long tokens = 0;
+            while (words.next()) {
+                //step 1.b - inserting the words from the file to RB-Tree, a repeated word is counted by its node
+                _RBTree.insert(_RBTree.getRoot(), words.toString(), words.getLine(), words.getColumn());
+                tokens++;
+            }
+            if (_metrics != null) {
+                long nanos = System.nanoTime() - start;
+                _metrics.tokens(tokens, nanos);
+                _metrics.phase("tokenize", nanos);
+            }
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
         /*
-        step 2 - deleting all the words that exists at the dictionary and
+        step 2 - filtering out all the words that exists at the dictionary and
         printing all the words that may have a spelling mistakes with their
         correcting suggestion
          */
-        deleteFromRBT(_RBTree, _RBTree.getRoot());
+        start = (_metrics == null) ? 0 : System.nanoTime();
+        ArrayList<RedBlackNode> misspelled = filter(_RBTree);
+        if (_metrics != null) {
+            long now = System.nanoTime();
+            _metrics.phase("filter", now - start);
+            start = now;
+        }
+        for (RedBlackNode x : misspelled) {
+            System.out.println(new Misspelling(x.getValue(), getSuggestion(x.getValue()), 0, 0) + positions(x));
+        }
+        if (_metrics != null)
+            _metrics.phase("suggest", System.nanoTime() - start);
+        // the tree is left with the misspelled words only, rebuilt balanced from their sorted order
+        _RBTree = RedBlackTree.fromSorted(misspelled);
+    }
+
+    /**
+     * Finds the words of a text tree which don't exist at the dictionary, in a single
+     * iterative in order traversal (with an explicit stack) - the tree isn't changed,
+     * so no rotation is done and deep trees can't overflow the call stack.
+     *
+     * @param inputTree - the tree which contains the words from our text file
+     * @return the nodes of the misspelled words, in ascending order
+     */
+    public ArrayList<RedBlackNode> filter(RedBlackTree inputTree) {
+        ArrayList<RedBlackNode> misspelled = new ArrayList<>();
+        ArrayDeque<RedBlackNode> stack = new ArrayDeque<>();
+        RedBlackNode x = inputTree.getRoot();
+        while (isNode(x) || !stack.isEmpty()) {
+            while (isNode(x)) {
+                stack.push(x);
+                x = x.getLeftSon();
+            }
+            x = stack.pop();
+            if (!lookup(x.getValue()))
+                misspelled.add(x);
+            x = x.getRightSon();
+        }
+        return misspelled;
+    }
+
+    /**
+     * @return false for null and for the tree's nil[T] (the only node with an empty string)
+     */
+    private static boolean isNode(RedBlackNode x) {
+        return x != null && !x.getValue().equals("");
+    }
+
+    /**
+     * Streaming spell checking of a txt file (UTF-8) - the text is tokenized
+     * while it is read, and every word is checked as soon as it is complete,
+     * so the memory used doesn't depend on the size of the text.
+     * @param textPath    - the system path to the txt file.
+     * @param dedupWindow - how many recently reported words are not reported again, 0 reports every occurrence
+     * @param listener    - receives the misspelled words in text order
+     * @throws FileNotFoundException
+     */
+    public void stream(String textPath, int dedupWindow, MisspellingListener listener) throws FileNotFoundException {
+        try (Reader text = new InputStreamReader(new FileInputStream(textPath), StandardCharsets.UTF_8)) {
+            stream(text, dedupWindow, listener);
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Streaming spell checking of a text, words are separated by whitespaces
+     * (and normalized when setNormalizeWords() is on)
+     * @param text        - the text to check, read until its end (and not closed)
+     * @param dedupWindow - how many recently reported words are not reported again, 0 reports every occurrence
+     * @param listener    - receives the misspelled words in text order
+     */
+    public void stream(Reader text, int dedupWindow, MisspellingListener listener) {
+        Map<String, Boolean> recent = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > dedupWindow;
+            }
+        };
+        long start = (_metrics == null) ? 0 : System.nanoTime();
+        long tokens = 0;
+        Tokenizer words = new Tokenizer(text, _normalizeWords, _normalizeWords);
+        while (words.next()) {
+            tokens++;
+            if (lookup(words))
+                continue; // a correctly spelled word never becomes a String
+            String word = words.toString();
+            if (dedupWindow > 0 && recent.put(word, Boolean.TRUE) != null)
+                continue;
+            listener.found(new Misspelling(word, getSuggestion(word), words.getLine(), words.getColumn()));
+        }
+        if (_metrics != null) {
+            long nanos = System.nanoTime() - start;
+            _metrics.tokens(tokens, nanos);
+            _metrics.phase("stream", nanos);
+        }
+    }
+
+    /**
+     * Parallel spell checking of a large txt file (UTF-8) - the file is memory mapped
+     * and split at whitespaces into chunks which are tokenized and looked up
+     * by several threads, the results are reported in text order
+     * (the words are normalized when setNormalizeWords() is on, like stream() normalizes them).
+     * @param textPath    - the system path to the txt file.
+     * @param threads     - the amount of worker threads
+     * @param dedupWindow - how many recently reported words are not reported again, 0 reports every occurrence
+     * @param listener    - receives the misspelled words in text order
+     * @throws IOException
+     */
+    public void checkChunked(String textPath, int threads, int dedupWindow, MisspellingListener listener)
+            throws IOException {
+        new ChunkedFileChecker(_lexicon, threads, ChunkedFileChecker.DEFAULT_CHUNK_BYTES, _normalizeWords)
+                .check(textPath, dedupWindow, this::getSuggestion, listener);
     }
 
     /**
      * Delete all the words that exists at the dictionary and prints
      * the words that may have a spelling mistakes with their correcting suggestion
+     * and every position they occurred at.
+     * Each distinct word is looked up and scored once, however many times it occurred.
      *
      * @param inputTree - the tree which contains the words from our text file
      * @param x - pointer to the root of inputTree
@@ -67,15 +313,53 @@ public class SpellCheck {
     public void deleteFromRBT(RedBlackTree inputTree, RedBlackNode x) {
         if (x != null && (!(x.getValue().equals("")))) {
             deleteFromRBT(inputTree, x.getLeftSon());
-            if (this._dict.contains(x.getValue())) {
+            if (lookup(x.getValue())) {
                 inputTree.delete(x, x.getValue());
             } else {
-                System.out.println("\"" + x.getValue() + "\"" + " wasn't found in the dictionary, did you mean: \"" + getSuggestion(x.getValue()) + "\"?");
+                System.out.println(new Misspelling(x.getValue(), getSuggestion(x.getValue()), 0, 0)
+                        + positions(x));
             }
             deleteFromRBT(inputTree, x.getRightSon());
         }
     }
 
+    /**
+     * @return the positions a text tree's word occurred at, as " (at line:column, ...)"
+     */
+    private static String positions(RedBlackNode x) {
+        if (x.getPositionsCount() == 0)
+            return "";
+        StringBuilder sb = new StringBuilder(" (at ");
+        for (int i = 0; i < x.getPositionsCount(); i++) {
+            if (i > 0)
+                sb.append(", ");
+            sb.append(x.getLine(i)).append(':').append(x.getColumn(i));
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * Check if a single word is spelled correctly
+     *
+     * @param word - input word
+     * @return true when the word exists at the dictionary (lexicon)
+     */
+    public boolean isCorrect(CharSequence word) {
+        return lookup(word);
+    }
+
+    /**
+     * Looks a word up in the lexicon, measuring the lookup when metrics are set
+     */
+    private boolean lookup(CharSequence word) {
+        if (_metrics == null)
+            return _lexicon.contains(word);
+        long start = System.nanoTime();
+        boolean found = _lexicon.contains(word);
+        _metrics.lookup(System.nanoTime() - start);
+        return found;
+    }
+
     /**
      * When the word is not in the dictionary, this function will suggest
      * a fixed word for you.
@@ -85,30 +369,117 @@ public class SpellCheck {
      *      2. a difference by 1 will raise the potential by 1
      *  b. The amount of similar letters in the same order
      *     Each letter will gain 1 point to the potential count of the word.
+     * Of the words with the highest potential, the first in the hash table's slot order is suggested
+     * (the former chained table gave the first by bucket and then alphabetically).
+     *
+     * When a suggestion engine is set it is asked first,
+     * and the dictionary is searched (pruned by word length, see getSuggestions()) only if it has no candidate.
+     * When a suggestion cache is set, repeated words are answered by it.
      *
      * @param input - Word
      * @return a String that is the potential word
      */
     public String getSuggestion(String input) {
+        if (_metrics == null)
+            return suggestion(input);
+        long start = System.nanoTime();
+        long scored = getScoredCount();
+        String suggestion = suggestion(input);
+        _metrics.suggestion(System.nanoTime() - start, getScoredCount() - scored);
+        return suggestion;
+    }
+
+    /**
+     * Gets a suggestion from the cache, or computes it
+     */
+    private String suggestion(String input) {
+        if (_cache != null)
+            return _cache.get(input, version(), this::computeSuggestion);
+        return computeSuggestion(input);
+    }
+
+    /**
+     * @return the version of the words suggestions are computed by -
+     * of the dictionary (or the lexicon when there is none) and of an engine which is a lexicon too
+     */
+    long version() {
+        long version = (_dict != null) ? _dict.getVersion() : _lexicon.getVersion();
+        if (_engine instanceof Lexicon && _engine != _lexicon)
+            version += ((Lexicon) _engine).getVersion();
+        return version;
+    }
+
+    /**
+     * @return the amount of words this checker has scored so far, by itself and by its engine
+     */
+    long getScoredCount() {
+        return _similarity.getScoredCount();
+    }
+
+    /**
+     * Computes a suggestion by the engine, falling back to scanning the dictionary
+     */
+    private String computeSuggestion(String input) {
+        if (_engine != null) {
+            String suggestion = _engine.suggest(input, _similarity); // its candidates count on the metrics
+            if (suggestion != null)
+                return suggestion;
+        }
+        List<String> best = rankSuggestions(input, 1);
+        return best.isEmpty() ? "" : best.get(0);
+    }
+
+    /**
+     * The k most potential words for an input word, best first -
+     * ranked by the same potential as getSuggestion(), words of equal potential in dictionary order,
+     * so the first one is always what scanSuggestion() would suggest.
+     * Only the dictionary is searched (a suggestion engine is not asked).
+     *
+     * @param input - Word
+     * @param k     - the maximal amount of suggestions
+     * @return up to k suggestions, empty when there is no dictionary to search
+     */
+    public List<String> getSuggestions(String input, int k) {
+        if (k <= 0)
+            throw new IllegalArgumentException("k must be positive: " + k);
+        return rankSuggestions(input, k);
+    }
+
+    /**
+     * Searches the dictionary by its length index (see Similarity.rank())
+     */
+    private List<String> rankSuggestions(String input, int k) {
+        if (_dict == null || _dict.size() == 0)
+            return Collections.emptyList();
+        int[] slots = _similarity.rank(input, k, _dict.keys(), _dict.lengthIndex());
+        String[] words = new String[slots.length];
+        for (int i = 0; i < slots.length; i++)
+            words[i] = _dict.wordAt(slots[i]);
+        return Arrays.asList(words);
+    }
+
+    /**
+     * Suggests a word by scoring every word of the dictionary
+     * (the exhaustive search getSuggestion() prunes, kept as its reference)
+     *
+     * @param input - Word
+     * @return a String that is the potential word, empty when there is no dictionary to scan
+     */
+    public String scanSuggestion(String input) {
         String potentialWord = "";
         int max = -1;
         int currPotential;
-        int lengthDiff = 0;
-        ArrayList<String>[] copiedDictionary = _dict.getDict();
-        for (int i = 0; i < copiedDictionary.length; i++) {
-            for (String word : copiedDictionary[i]) {
-                // handle b. type of potential
-                currPotential = potential(word, input, 0); // the amount of similar characters in order
-                // handle a. type of potential
-                lengthDiff = Math.abs(word.length() - input.length());
-                if (currPotential > 0) {
-                    currPotential += (lengthDiff < 1) ? 1 : 0; // in case of no difference between word's size
-                    currPotential += (lengthDiff < 2) ? 1 : 0; // in case of difference by 1
-                }
-                if (currPotential > max) {
-                    max = currPotential;
-                    potentialWord = word;
-                }
+        if (_dict == null)
+            return potentialWord;
+        for (int i = 0; i < _dict.capacity(); i++) {
+            String word = _dict.wordAt(i);
+            if (word == null)
+                continue;
+            // handles both a. and b. types of potential
+            currPotential = _similarity.score(word, input);
+            if (currPotential > max) {
+                max = currPotential;
+                potentialWord = word;
             }
         }
         return potentialWord;
@@ -124,16 +495,8 @@ public class SpellCheck {
      * @return max => the potential of second word to be the actual first with mistakes.
      */
     public int potential(String str1, String str2, int max) {
-        if (str1.equals("") || str2.equals("")) {
-            return max;
-        }
-        int option1 = potential(str1.substring(1), str2, max);
-        int option2 = potential(str1, str2.substring(1), max);
-        int option3 = 0;
-        if (str1.charAt(0) == str2.charAt(0)) {
-            option3 = potential(str1.substring(1), str2.substring(1), max + 1);
-        }
-        return tripleMax(option1, option2, option3);
+        // the rolling row LCS returns what the former recursive search did, in O(n*m)
+        return max + _similarity.lcs(str1, str2);
     }
 
     /**
@@ -0,0 +1,50 @@
+/**
+ * Spell Check Metrics - receives the measurements of SpellCheck and Dictionary.
+ * Set one by SpellCheck.setMetrics() (or Dictionary.setMetrics()); without one
+ * nothing is measured at all - the instrumented paths only check for null.
+ * Implemented by HistogramMetrics (in memory) and JfrMetrics (JFR events).
+ * <p>Implementations are called from every checking thread and must be thread safe.</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+public interface SpellCheckMetrics {
+
+    /**
+     * A phase of a run ended - "dictionary build", "tokenize", "filter", "suggest" or "stream"
+     *
+     * @param phase - the phase's name
+     * @param nanos - the phase's duration
+     */
+    void phase(String phase, long nanos);
+
+    /**
+     * A text was tokenized
+     *
+     * @param tokens - the amount of tokens
+     * @param nanos  - the time it took, including inserting or checking the tokens
+     */
+    void tokens(long tokens, long nanos);
+
+    /**
+     * A word was looked up in the lexicon
+     *
+     * @param nanos - the lookup's latency
+     */
+    void lookup(long nanos);
+
+    /**
+     * A suggestion was computed
+     *
+     * @param nanos      - the suggestion's latency
+     * @param candidates - the amount of words the checker and its engine scored for it (0 when a cache answered)
+     */
+    void suggestion(long nanos, long candidates);
+
+    /**
+     * A Dictionary.contains() probed the hash table
+     *
+     * @param probes - the amount of slots probed, the length of the chain walked
+     */
+    void probes(int probes);
+}
@@ -0,0 +1,275 @@
+/**
+ * Spell Check Server - loads the dictionary once and serves spell checks
+ * over a line delimited TCP protocol:
+ * <pre>
+ * CHECK word    -> OK word | MISSPELLED word suggestion
+ * SUGGEST word  -> SUGGESTION word suggestion
+ * anything else -> ERROR message
+ * </pre>
+ * Requests may be pipelined - a client can send many lines before reading,
+ * and the responses come back in the same order.
+ * <p>Every connection's reader queues its requests to a shared queue, and a few
+ * worker threads drain that queue - a worker takes up to maxBatch requests of any
+ * connections at once and answers them one by one, by its own checker over a shared
+ * DictionarySnapshot (and a suggestion cache shared by the workers).
+ * A request which fails is answered by an ERROR response, the worker goes on.
+ * The queue is bounded - when the workers fall behind, the readers wait for room
+ * and stop reading, so the clients are slowed down by TCP rather than filling the heap.
+ * Connections are handled by a cached thread pool; on Java 21
+ * Executors.newVirtualThreadPerTaskExecutor() can take its place as is.</p>
+ * <p>Served from a ReloadingDictionary, every batch is answered by the snapshot
+ * which was the latest when the batch was taken, so a reload never stops the workers.</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+public class SpellCheckServer implements AutoCloseable {
+
+    private static final int DEFAULT_MAX_BATCH = 256;
+    private static final int SUGGESTION_CACHE_SIZE = 100_000;
+    private static final int QUEUED_BATCHES_PER_WORKER = 4; // the queue's capacity, in batches
+    private static final int MAX_PENDING = 1024; // a connection's unanswered requests before its responses are flushed
+
+    private final Supplier<DictionarySnapshot> _snapshots;
+    private final SuggestionCache _cache;
+    private final LinkedBlockingQueue<Request> _queue;
+    private final int _workers;
+    private final int _maxBatch;
+    private ServerSocket _serverSocket;
+    private ExecutorService _connections;
+    private ArrayList<Thread> _workerThreads;
+    private volatile boolean _running;
+
+    /**
+     * @param snapshot - the dictionary to serve
+     * @param workers  - the amount of threads answering batches
+     * @param maxBatch - the maximal amount of requests answered by a worker at once
+     */
+    public SpellCheckServer(DictionarySnapshot snapshot, int workers, int maxBatch) {
+        this(() -> snapshot, workers, maxBatch);
+    }
+
+    /**
+     * @param dictionary - the reloading dictionary to serve, by its latest snapshot
+     * @param workers    - the amount of threads answering batches
+     * @param maxBatch   - the maximal amount of requests answered by a worker at once
+     */
+    public SpellCheckServer(ReloadingDictionary dictionary, int workers, int maxBatch) {
+        this(dictionary::current, workers, maxBatch);
+    }
+
+    private SpellCheckServer(Supplier<DictionarySnapshot> snapshots, int workers, int maxBatch) {
+        if (workers <= 0 || maxBatch <= 0)
+            throw new IllegalArgumentException("workers and maxBatch must be positive");
+        _snapshots = snapshots;
+        _cache = new SuggestionCache(SUGGESTION_CACHE_SIZE);
+        _queue = new LinkedBlockingQueue<>(workers * maxBatch * QUEUED_BATCHES_PER_WORKER);
+        _workers = workers;
+        _maxBatch = maxBatch;
+    }
+
+    /**
+     * Runs a server: java SpellCheckServer dictionary.txt port [workers]
+     * (the dictionary file is reloaded whenever it changes)
+     *
+     * @param args - the dictionary text file, the port and optionally the amount of workers
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: java SpellCheckServer <dictionary.txt> <port> [workers]");
+            System.exit(2);
+        }
+        ReloadingDictionary dict = new ReloadingDictionary(args[0]);
+        dict.setReloadListener(snapshot -> System.out.println("reloaded " + snapshot.size() + " words"));
+        int workers = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        SpellCheckServer server = new SpellCheckServer(dict, workers, DEFAULT_MAX_BATCH);
+        server.start(Integer.parseInt(args[1]));
+        System.out.println("serving " + dict.current().size() + " words on port " + server.getPort());
+    }
+
+    /**
+     * Starts accepting connections on a port of the loopback interface
+     *
+     * @param port - the port, 0 for any free port
+     * @throws IOException
+     */
+    public void start(int port) throws IOException {
+        _serverSocket = new ServerSocket();
+        _serverSocket.bind(new InetSocketAddress("127.0.0.1", port));
+        _connections = Executors.newCachedThreadPool();
+        _running = true;
+        _workerThreads = new ArrayList<>();
+        for (int i = 0; i < _workers; i++) {
+            Thread worker = new Thread(this::answerBatches, "spell-check-worker-" + i);
+            worker.start();
+            _workerThreads.add(worker);
+        }
+        Thread acceptor = new Thread(this::accept, "spell-check-acceptor");
+        acceptor.start();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return _serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the suggestion cache shared by the workers, for its statistics
+     */
+    public SuggestionCache getSuggestionCache() {
+        return _cache;
+    }
+
+    /**
+     * Stops accepting and answering requests and closes the connections
+     *
+     * @throws IOException
+     */
+    public void close() throws IOException {
+        _running = false;
+        _serverSocket.close();
+        _connections.shutdownNow();
+        for (Thread worker : _workerThreads) {
+            worker.interrupt();
+        }
+    }
+
+    private void accept() {
+        while (_running) {
+            try {
+                Socket socket = _serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                _connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (_running)
+                    System.err.println("accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads a connection's requests and writes their responses in order,
+     * flushing once whenever the client has no more pipelined requests ready,
+     * or once MAX_PENDING requests are waiting (a client which never stops sending
+     * still gets its responses, and a connection holds a bounded amount of them)
+     */
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8))) {
+            ArrayDeque<Request> pending = new ArrayDeque<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                Request request = new Request(line);
+                pending.add(request);
+                if (request.word != null)
+                    _queue.put(request); // waits while the workers are behind
+                if (pending.size() >= MAX_PENDING || !in.ready()) { // answer what was read
+                    while (!pending.isEmpty()) {
+                        out.write(pending.poll().response.get());
+                        out.write('\n');
+                    }
+                    out.flush();
+                }
+            }
+        } catch (IOException | ExecutionException e) {
+            // the client went away
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A worker's loop - takes a batch of queued requests of any connections and answers them.
+     * A request whose answer throws gets an ERROR response; should anything else escape,
+     * the batch's unanswered requests are failed, so their connections are closed rather than left waiting.
+     */
+    private void answerBatches() {
+        DictionarySnapshot snapshot = null;
+        SpellCheck checker = null;
+        ArrayList<Request> batch = new ArrayList<>(_maxBatch);
+        while (_running) {
+            try {
+                batch.add(_queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            _queue.drainTo(batch, _maxBatch - 1);
+            try {
+                if (snapshot != _snapshots.get()) { // the first batch, or the dictionary was reloaded
+                    snapshot = _snapshots.get();
+                    checker = snapshot.newChecker();
+                    checker.setSuggestionCache(_cache); // its entries of the former snapshot are dropped by version
+                }
+                for (Request request : batch) {
+                    try {
+                        request.response.complete(answer(checker, request));
+                    } catch (RuntimeException e) {
+                        request.response.complete("ERROR " + e);
+                    }
+                }
+            } catch (RuntimeException | Error e) {
+                for (Request request : batch)
+                    request.response.completeExceptionally(e); // no effect on the answered ones
+                snapshot = null;
+                if (e instanceof Error)
+                    throw e;
+                System.err.println("spell check worker failed: " + e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private String answer(SpellCheck checker, Request request) {
+        if (request.check && checker.isCorrect(request.word))
+            return "OK " + request.word;
+        String suggestion = checker.getSuggestion(request.word);
+        return (request.check ? "MISSPELLED " : "SUGGESTION ") + request.word + " " + suggestion;
+    }
+
+    /**
+     * A parsed request line and its future response
+     */
+    private static class Request {
+        private final CompletableFuture<String> response = new CompletableFuture<>();
+        private final String word;
+        private final boolean check;
+
+        private Request(String line) {
+            int space = line.indexOf(' ');
+            String command = (space < 0) ? line : line.substring(0, space);
+            String word = (space < 0) ? "" : line.substring(space + 1).trim();
+            check = command.equals("CHECK");
+            if ((check || command.equals("SUGGEST")) && !word.isEmpty() && word.indexOf(' ') < 0) {
+                this.word = word;
+            } else {
+                this.word = null;
+                response.complete("ERROR expected CHECK <word> or SUGGEST <word>");
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Suggestion Cache - a size bounded, thread safe LRU cache of suggestions,
+ * so a misspelling which repeats in the text is scored only once.
+ * Every lookup carries the version of the dictionary the suggestion is computed by,
+ * and the whole cache is dropped once a newer version comes. A lookup of an older
+ * version (a checker still on a former snapshot) is computed and not cached,
+ * so it never drops the newer entries.
+ * <p>Counts hits, misses, evictions and the time spent loading missed suggestions.
+ * Two threads missing the same word at once may both load it.</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+public class SuggestionCache {
+
+    private final int _maxEntries;
+    private final LinkedHashMap<String, String> _entries;
+    private long _version = Long.MIN_VALUE; // the newest version seen, any version is newer after invalidate()
+    private long _hits;
+    private long _misses;
+    private long _evictions;
+    private long _loadNanos;
+
+    /**
+     * @param maxEntries - the maximal amount of cached suggestions
+     */
+    public SuggestionCache(int maxEntries) {
+        if (maxEntries <= 0)
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        _maxEntries = maxEntries;
+        _entries = new LinkedHashMap<String, String>(16, 0.75f, true) { // access order = LRU
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                if (size() > _maxEntries) {
+                    _evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached suggestion of a word, loading (and caching) it when missing
+     *
+     * @param input   - the misspelled word
+     * @param version - the version of the dictionary the suggestion is for, versions only grow
+     * @param loader  - computes the suggestion of a missing word
+     * @return the suggestion of the word
+     */
+    public String get(String input, long version, Function<String, String> loader) {
+        synchronized (this) {
+            if (version > _version) {
+                _entries.clear();
+                _version = version;
+            }
+            String suggestion = (version == _version) ? _entries.get(input) : null; // an older version isn't cached
+            if (suggestion != null) {
+                _hits++;
+                return suggestion;
+            }
+            _misses++;
+        }
+        long start = System.nanoTime();
+        String suggestion = loader.apply(input);
+        long loadNanos = System.nanoTime() - start;
+        synchronized (this) {
+            _loadNanos += loadNanos;
+            if (version == _version)
+                _entries.put(input, suggestion);
+        }
+        return suggestion;
+    }
+
+    /**
+     * Drops all the cached suggestions, the next lookup's version is taken as the newest
+     */
+    public synchronized void invalidate() {
+        _entries.clear();
+        _version = Long.MIN_VALUE;
+    }
+
+    /**
+     * @return the maximal amount of cached suggestions
+     */
+    public int getMaxEntries() {
+        return _maxEntries;
+    }
+
+    /**
+     * @return the amount of cached suggestions
+     */
+    public synchronized int size() {
+        return _entries.size();
+    }
+
+    /**
+     * @return the amount of lookups answered from the cache
+     */
+    public synchronized long hits() {
+        return _hits;
+    }
+
+    /**
+     * @return the amount of lookups which had to load the suggestion
+     */
+    public synchronized long misses() {
+        return _misses;
+    }
+
+    /**
+     * @return the amount of suggestions removed to keep the cache bounded
+     */
+    public synchronized long evictions() {
+        return _evictions;
+    }
+
+    /**
+     * @return the total time spent loading missed suggestions, in nanoseconds
+     */
+    public synchronized long loadNanos() {
+        return _loadNanos;
+    }
+
+    /**
+     * @return the ratio of lookups answered from the cache, 0 before any lookup
+     */
+    public synchronized double hitRate() {
+        long lookups = _hits + _misses;
+        return (lookups == 0) ? 0 : (double) _hits / lookups;
+    }
+}
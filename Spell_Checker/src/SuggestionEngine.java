@@ -0,0 +1,29 @@
+/**
+ * A suggestion engine - a strategy which SpellCheck.getSuggestion() can use
+ * instead of scanning every word of the dictionary.
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+public interface SuggestionEngine {
+
+    /**
+     * Suggest a correct word for a word that wasn't found in the dictionary
+     *
+     * @param input - the misspelled word
+     * @return the suggested word, or null when the engine has no candidate for it
+     */
+    String suggest(String input);
+
+    /**
+     * Suggest a correct word like suggest(), scoring the candidates by the caller's kernel,
+     * so they are counted by its getScoredCount() - by default they are scored (and counted) by the engine's own
+     *
+     * @param input      - the misspelled word
+     * @param similarity - the caller's scoring kernel, used by the calling thread only
+     * @return the suggested word, or null when the engine has no candidate for it
+     */
+    default String suggest(String input, Similarity similarity) {
+        return suggest(input);
+    }
+}
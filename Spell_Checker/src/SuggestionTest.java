@@ -0,0 +1,129 @@
+/**
+ * Suggestion Test - checks that the length pruned search of SpellCheck.getSuggestion(),
+ * getSuggestions() and DictionarySnapshot.suggest() suggests exactly what scoring every word does
+ * (SpellCheck.scanSuggestion(), and a full ranking for the top k),
+ * for random misspellings of the dictionary's words, words longer than any
+ * dictionary word and words sharing no character with it - first after bulk loading
+ * the dictionary, and again after adding a few words one by one.
+ * A checker of the snapshot must suggest the same words and report the same amount of
+ * scored candidates to its metrics as the dictionary's checker, which scores them itself.
+ * Exits with an error on the first mismatch.
+ * <p>Run: java SuggestionTest [dictionary.txt]</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class SuggestionTest {
+
+    private static final int INPUTS = 3000;
+    private static final int TOP_K = 5;
+    private static final int ADDED = 200; // words added one by one after the bulk load
+    private static final int TOP_K_EVERY = 10; // a full ranking is slow, rank every 10th input only
+
+    public static void main(String[] args) throws FileNotFoundException {
+        Dictionary dict = new Dictionary();
+        dict.build((args.length > 0) ? args[0] : "src/dictionary.txt");
+        Random random = new Random(2024);
+        check(dict, random);
+        for (int i = 0; i < ADDED; i++) // kept in the length index without rebuilding it
+            dict.add(input(dict.getDict(), dict.maxWordLength(), random));
+        check(dict, random);
+        System.out.println("SuggestionTest passed: " + 2 * INPUTS + " inputs over " + dict.size() + " words");
+    }
+
+    /**
+     * Compares the pruned suggestions of a dictionary and of its snapshot with scoring every word
+     */
+    private static void check(Dictionary dict, Random random) {
+        SpellCheck checker = new SpellCheck(dict);
+        DictionarySnapshot snapshot = dict.snapshot();
+        SpellCheck snapshotChecker = snapshot.newChecker();
+        HistogramMetrics metrics = new HistogramMetrics();
+        HistogramMetrics snapshotMetrics = new HistogramMetrics();
+        checker.setMetrics(metrics);
+        snapshotChecker.setMetrics(snapshotMetrics);
+        String[] words = dict.getDict();
+        for (int i = 0; i < INPUTS; i++) {
+            String input = input(words, dict.maxWordLength(), random);
+            String pruned = checker.getSuggestion(input);
+            String scanned = checker.scanSuggestion(input);
+            if (!pruned.equals(scanned))
+                fail(input, "getSuggestion() gave \"" + pruned + "\", scanSuggestion() gave \"" + scanned + "\"");
+            String snapped = snapshot.suggest(input);
+            if (!scanned.equals(snapped))
+                fail(input, "the snapshot gave \"" + snapped + "\", scanSuggestion() gave \"" + scanned + "\"");
+            String snapshotChecked = snapshotChecker.getSuggestion(input);
+            if (!scanned.equals(snapshotChecked))
+                fail(input, "the snapshot's checker gave \"" + snapshotChecked + "\", scanSuggestion() gave \"" + scanned + "\"");
+            if (i % TOP_K_EVERY == 0) {
+                List<String> top = checker.getSuggestions(input, TOP_K);
+                List<String> ranked = rank(dict, input, TOP_K);
+                if (!top.equals(ranked))
+                    fail(input, "getSuggestions() gave " + top + ", the full ranking " + ranked);
+            }
+        }
+        double candidates = metrics.candidatesPerSuggestion();
+        double snapshotCandidates = snapshotMetrics.candidatesPerSuggestion();
+        if (candidates == 0 || snapshotCandidates != candidates)
+            fail("", "the snapshot's checker scored " + snapshotCandidates + " candidates per suggestion, the dictionary's "
+                    + candidates);
+    }
+
+    /**
+     * @return a random input - usually a word with a few edits, sometimes an over long or a foreign word
+     */
+    private static String input(String[] words, int maxLength, Random random) {
+        switch (random.nextInt(10)) {
+            case 0: // longer than any dictionary word
+                StringBuilder sb = new StringBuilder(words[random.nextInt(words.length)]);
+                while (sb.length() <= maxLength + 1 + random.nextInt(5))
+                    sb.append(words[random.nextInt(words.length)]);
+                return sb.toString();
+            case 1: // no character in common
+                char[] chars = new char[1 + random.nextInt(8)];
+                Arrays.fill(chars, '#');
+                return new String(chars);
+            default:
+                StringBuilder word = new StringBuilder(words[random.nextInt(words.length)]);
+                for (int edits = 1 + random.nextInt(2); edits > 0 && word.length() > 0; edits--) {
+                    int at = random.nextInt(word.length());
+                    char c = (char) ('a' + random.nextInt(26));
+                    switch (random.nextInt(3)) {
+                        case 0: word.deleteCharAt(at); break;
+                        case 1: word.insert(at, c); break;
+                        default: word.setCharAt(at, c);
+                    }
+                }
+                return word.toString();
+        }
+    }
+
+    /**
+     * @return the k best words by scoring every word, equal potentials in table order
+     */
+    private static List<String> rank(Dictionary dict, String input, int k) {
+        Similarity similarity = new Similarity();
+        ArrayList<int[]> scored = new ArrayList<>(); // {potential, slot}
+        for (int slot = 0; slot < dict.capacity(); slot++) {
+            if (dict.wordAt(slot) != null)
+                scored.add(new int[]{similarity.score(dict.wordAt(slot), input), slot});
+        }
+        scored.sort((a, b) -> (a[0] != b[0]) ? Integer.compare(b[0], a[0]) : Integer.compare(a[1], b[1]));
+        ArrayList<String> ranked = new ArrayList<>();
+        for (int i = 0; i < k && i < scored.size(); i++)
+            ranked.add(dict.wordAt(scored.get(i)[1]));
+        return ranked;
+    }
+
+    private static void fail(String input, String message) {
+        System.err.println("SuggestionTest failed for \"" + input + "\": " + message);
+        System.exit(1);
+    }
+}
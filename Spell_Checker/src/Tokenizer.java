@@ -0,0 +1,171 @@
+/**
+ * Tokenizer - a hand written, allocation free word tokenizer.
+ * Words are separated by whitespaces; the tokenizer is itself a CharSequence
+ * view of the current word, whose chars are kept in a reusable array,
+ * so looking a word up (for example by Lexicon.contains()) creates no String.
+ * Call toString() only for the words that have to be kept.
+ * <p>Optionally strips the punctuation around a word ("name," becomes "name")
+ * and folds it to lower case, both while it is being read.</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+public class Tokenizer implements CharSequence {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader _text;
+    private final boolean _stripPunctuation;
+    private final boolean _foldCase;
+    private final char[] _buffer;
+    private int _position;
+    private int _limit;
+    private char[] _word;
+    private int _length;
+    private long _line;
+    private int _column;
+    private long _wordLine;
+    private int _wordColumn;
+
+    /**
+     * @param text             - the text to tokenize, read until its end (and not closed)
+     * @param stripPunctuation - whether to strip the chars which aren't letters or digits from both ends of a word
+     * @param foldCase         - whether to lower case the words
+     */
+    public Tokenizer(Reader text, boolean stripPunctuation, boolean foldCase) {
+        _text = text;
+        _stripPunctuation = stripPunctuation;
+        _foldCase = foldCase;
+        _buffer = new char[BUFFER_SIZE];
+        _word = new char[32];
+        _line = 1;
+    }
+
+    /**
+     * Advances to the next word of the text
+     *
+     * @return true if there is a next word, false at the end of the text
+     */
+    public boolean next() {
+        do {
+            if (!readWord())
+                return false;
+        } while (_length == 0); // a word made only of punctuation
+        return true;
+    }
+
+    /**
+     * @return the line the current word starts at (1 based)
+     */
+    public long getLine() {
+        return _wordLine;
+    }
+
+    /**
+     * @return the column the current word starts at (1 based)
+     */
+    public int getColumn() {
+        return _wordColumn;
+    }
+
+    /**
+     * @return the line of the last char read - once next() returned false, the text's last line (1 based)
+     */
+    long getEndLine() {
+        return _line;
+    }
+
+    /**
+     * @return the chars read of the last char's line - once next() returned false, the length of the text's last line
+     */
+    int getEndColumn() {
+        return _column;
+    }
+
+    public int length() {
+        return _length;
+    }
+
+    public char charAt(int index) {
+        if (index >= _length)
+            throw new IndexOutOfBoundsException(index);
+        return _word[index];
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    /**
+     * @return a String copy of the current word
+     */
+    public String toString() {
+        return new String(_word, 0, _length);
+    }
+
+    /**
+     * Reads the next whitespace delimited word into _word, stripping and folding it
+     *
+     * @return false at the end of the text
+     */
+    private boolean readWord() {
+        _length = 0;
+        int c;
+        do { // skip the whitespaces
+            c = read();
+            if (c < 0)
+                return false;
+        } while (Character.isWhitespace(c));
+        int kept = 0; // the length up to the last letter or digit
+        while (c >= 0 && !Character.isWhitespace(c)) {
+            char ch = (char) c;
+            boolean letterOrDigit = Character.isLetterOrDigit(ch);
+            if (_length > 0 || letterOrDigit || !_stripPunctuation) {
+                if (_length == 0) {
+                    _wordLine = _line;
+                    _wordColumn = _column;
+                }
+                if (_length == _word.length)
+                    _word = Arrays.copyOf(_word, _length * 2);
+                _word[_length++] = _foldCase ? Character.toLowerCase(ch) : ch;
+                if (letterOrDigit || !_stripPunctuation)
+                    kept = _length;
+            }
+            c = read();
+        }
+        _length = kept;
+        return true;
+    }
+
+    /**
+     * @return the next char of the text, -1 at its end
+     */
+    private int read() {
+        if (_position == _limit) {
+            try {
+                _limit = _text.read(_buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            _position = 0;
+            if (_limit <= 0) {
+                _limit = 0;
+                return -1;
+            }
+        }
+        char c = _buffer[_position++];
+        if (c == '\n') {
+            _line++;
+            _column = 0;
+        } else {
+            _column++;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,290 @@
+/**
+ * Trigram Index - a suggestion engine over an inverted index of character trigrams.
+ * Every dictionary word is padded by a boundary mark on each side and split into
+ * its 3 character grams, and each gram lists the ids of the words containing it.
+ * A lookup counts the grams the input shares with each word, and only the words
+ * sharing enough of them are scored - an edit changes at most 3 grams,
+ * so a word within k edits shares all but about 3k of the input's grams.
+ * <p>The posting lists are int arrays laid out back to back (one offset per gram),
+ * the gram table is open addressed by the grams packed into longs.
+ * A lookup reuses its counting buffers, so an index is not thread safe.</p>
+ *
+ * @author Gal Toubul and David kipnis
+ * @version 1.0
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class TrigramIndex implements SuggestionEngine {
+
+    private static final char BOUNDARY = '\0';
+    private static final long FIBONACCI_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final int _maxEdits;
+    private final String[] _words; // by id, in the dictionary's order
+    private long[] _grams; // the gram table's keys, 0 marks an empty slot
+    private int[] _gramIds; // the gram table's values, the gram's index in _offsets
+    private int _gramsCount;
+    private int _shift;
+    private final int[] _offsets; // the postings of gram g are _postings[_offsets[g] .. _offsets[g + 1])
+    private final int[] _postings;
+    private final int[] _shared; // the grams each word shares with the current input
+    private int[] _touched; // the ids of the words sharing any gram with the current input
+    private long[] _inputGrams;
+    private int _gramsInLast; // the amount of distinct grams the last grams() found
+    private Similarity _similarity;
+    private long _queries;
+    private long _candidates;
+
+    /**
+     * Builds the index from every word of a given dictionary
+     *
+     * @param dict     - the dictionary to index
+     * @param maxEdits - k, the amount of edits the shared grams' threshold allows for
+     */
+    public TrigramIndex(Dictionary dict, int maxEdits) {
+        if (maxEdits < 0)
+            throw new IllegalArgumentException("maxEdits must not be negative: " + maxEdits);
+        _maxEdits = maxEdits;
+        _words = dict.getDict();
+        _similarity = new Similarity();
+        _inputGrams = new long[32];
+        allocate(1024);
+        // first pass - the distinct grams and the length of each one's posting list
+        int[] counts = new int[1024];
+        long[] grams = new long[32];
+        for (String word : _words) {
+            grams = grams(word, grams);
+            for (int i = 0; i < _gramsInLast; i++) {
+                int g = gramId(grams[i], true);
+                if (g >= counts.length)
+                    counts = Arrays.copyOf(counts, counts.length * 2);
+                counts[g]++;
+            }
+        }
+        _offsets = new int[_gramsCount + 1];
+        for (int g = 0; g < _gramsCount; g++)
+            _offsets[g + 1] = _offsets[g] + counts[g];
+        // second pass - the postings, in ascending ids
+        _postings = new int[_offsets[_gramsCount]];
+        int[] filled = new int[_gramsCount];
+        for (int id = 0; id < _words.length; id++) {
+            grams = grams(_words[id], grams);
+            for (int i = 0; i < _gramsInLast; i++) {
+                int g = gramId(grams[i], false);
+                _postings[_offsets[g] + filled[g]++] = id;
+            }
+        }
+        _shared = new int[_words.length];
+        _touched = new int[64];
+    }
+
+    /**
+     * @return k, the amount of edits the shared grams' threshold allows for
+     */
+    public int getMaxEdits() {
+        return _maxEdits;
+    }
+
+    /**
+     * @return the amount of indexed words
+     */
+    public int wordsCount() {
+        return _words.length;
+    }
+
+    /**
+     * @return the amount of distinct grams
+     */
+    public int gramsCount() {
+        return _gramsCount;
+    }
+
+    /**
+     * @return the amount of (gram, word) pairs stored
+     */
+    public long postingsCount() {
+        return _postings.length;
+    }
+
+    /**
+     * The heap the index takes: the gram table, the offsets, the postings
+     * and the per word buffers (not counting the indexed words themselves)
+     *
+     * @return the size of the index in bytes
+     */
+    public long estimatedBytes() {
+        return 12L * _grams.length + 4L * _offsets.length + 4L * _postings.length
+                + 8L * _words.length + 4L * _touched.length;
+    }
+
+    /**
+     * @return the average amount of candidates a lookup scored
+     */
+    public double averageCandidates() {
+        return (_queries == 0) ? 0 : (double) _candidates / _queries;
+    }
+
+    /**
+     * Finds the indexed words sharing enough grams with a word
+     *
+     * @param word       - the query word
+     * @param minShared  - the minimal amount of shared distinct grams
+     * @param maxMissing - the maximal amount of the word's distinct grams a candidate may miss
+     * @return the amount of candidates, whose ids (in no particular order) begin _touched
+     */
+    private int candidates(String word, int minShared, int maxMissing) {
+        _inputGrams = grams(word, _inputGrams);
+        minShared = Math.max(1, Math.max(minShared, _gramsInLast - maxMissing));
+        int touched = 0;
+        for (int i = 0; i < _gramsInLast; i++) {
+            int g = gramId(_inputGrams[i], false);
+            if (g < 0)
+                continue;
+            for (int p = _offsets[g]; p < _offsets[g + 1]; p++) {
+                int id = _postings[p];
+                if (_shared[id]++ == 0) {
+                    if (touched == _touched.length)
+                        _touched = Arrays.copyOf(_touched, touched * 2);
+                    _touched[touched++] = id;
+                }
+            }
+        }
+        int candidates = 0;
+        for (int i = 0; i < touched; i++) {
+            int id = _touched[i];
+            if (_shared[id] >= minShared)
+                _touched[candidates++] = id;
+            _shared[id] = 0;
+        }
+        return candidates;
+    }
+
+    /**
+     * Finds the indexed words sharing at least a given amount of grams with a word
+     *
+     * @param word      - the query word
+     * @param minShared - the minimal amount of shared distinct grams, at least 1
+     * @return the words, in dictionary order
+     */
+    public ArrayList<String> query(String word, int minShared) {
+        int count = candidates(word, minShared, Integer.MAX_VALUE);
+        Arrays.sort(_touched, 0, count);
+        ArrayList<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            result.add(_words[_touched[i]]);
+        return result;
+    }
+
+    /**
+     * Suggests the best scored word (by the same potential as SpellCheck, equal potentials
+     * in dictionary order) among the words sharing all but 3k of the input's grams
+     *
+     * @param input - the misspelled word
+     * @return the suggested word, or null if no word shares enough grams
+     */
+    public String suggest(String input) {
+        return suggest(input, _similarity);
+    }
+
+    /**
+     * Suggests a word like suggest(input), scored by the caller's kernel
+     *
+     * @param input      - the misspelled word
+     * @param similarity - the caller's scoring kernel
+     * @return the suggested word, or null if no word shares enough grams
+     */
+    public String suggest(String input, Similarity similarity) {
+        int count = candidates(input, 1, 3 * _maxEdits);
+        _queries++;
+        _candidates += count;
+        int best = -1;
+        int max = -1;
+        for (int i = 0; i < count; i++) {
+            int id = _touched[i];
+            int currPotential = similarity.score(_words[id], input);
+            if (currPotential > max || (currPotential == max && id < best)) {
+                max = currPotential;
+                best = id;
+            }
+        }
+        return (best < 0) ? null : _words[best];
+    }
+
+    /**
+     * Splits a word, lower cased and padded by a boundary mark on each side, into its distinct grams
+     *
+     * @param word   - the word
+     * @param buffer - a buffer for the grams, returned as is when it's large enough
+     * @return the buffer holding the grams in its first _gramsInLast cells
+     */
+    private long[] grams(String word, long[] buffer) {
+        int n = word.length();
+        if (buffer.length < n)
+            buffer = new long[Math.max(n, buffer.length * 2)];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            char a = (i == 0) ? BOUNDARY : Character.toLowerCase(word.charAt(i - 1));
+            char b = Character.toLowerCase(word.charAt(i));
+            char c = (i == n - 1) ? BOUNDARY : Character.toLowerCase(word.charAt(i + 1));
+            long gram = ((long) a << 32) | ((long) b << 16) | c;
+            boolean repeated = false;
+            for (int j = 0; j < count && !repeated; j++)
+                repeated = buffer[j] == gram;
+            if (!repeated)
+                buffer[count++] = gram;
+        }
+        _gramsInLast = count;
+        return buffer;
+    }
+
+    /**
+     * Finds a gram in the gram table
+     *
+     * @param gram - the packed gram (never 0, its middle character isn't a boundary)
+     * @param add  - whether to add a missing gram
+     * @return the gram's index, or -1 when it's missing and wasn't added
+     */
+    private int gramId(long gram, boolean add) {
+        int mask = _grams.length - 1;
+        for (int slot = (int) ((gram * FIBONACCI_MULTIPLIER) >>> _shift); ; slot = (slot + 1) & mask) {
+            if (_grams[slot] == gram)
+                return _gramIds[slot];
+            if (_grams[slot] == 0) {
+                if (!add)
+                    return -1;
+                if (_gramsCount + 1 > _grams.length / 2) {
+                    allocate(_grams.length * 2);
+                    return gramId(gram, true);
+                }
+                _grams[slot] = gram;
+                _gramIds[slot] = _gramsCount;
+                return _gramsCount++;
+            }
+        }
+    }
+
+    /**
+     * (Re)allocates the gram table with a given capacity (a power of 2), keeping its grams
+     */
+    private void allocate(int capacity) {
+        long[] oldGrams = _grams;
+        int[] oldIds = _gramIds;
+        _grams = new long[capacity];
+        _gramIds = new int[capacity];
+        _shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        if (oldGrams == null)
+            return;
+        int mask = capacity - 1;
+        for (int i = 0; i < oldGrams.length; i++) {
+            if (oldGrams[i] == 0)
+                continue;
+            int slot = (int) ((oldGrams[i] * FIBONACCI_MULTIPLIER) >>> _shift);
+            while (_grams[slot] != 0)
+                slot = (slot + 1) & mask;
+            _grams[slot] = oldGrams[i];
+            _gramIds[slot] = oldIds[i];
+        }
+    }
+}